@@ -0,0 +1,79 @@
+#!/usr/bin/env bash
+#
+# Downloads the production build of SauceDemo for the local AUT server (aut.local.enabled=true).
+#
+# The build is mirrored from the live site, asset by asset, as listed in its asset-manifest.json.
+# It is pinned by scripts/saucedemo.sha256: when that file exists, the download must match it
+# byte for byte, otherwise nothing is installed. Run with --update to accept a new upstream
+# build and rewrite the pin; commit the updated pin together with any test changes it needs.
+#
+# Usage: scripts/fetch-saucedemo.sh [--update] [target-dir]
+#   target-dir defaults to src/test/resources/saucedemo (the aut.local.root default)
+#   SAUCEDEMO_ORIGIN overrides the origin the build is downloaded from
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+update=false
+if [[ "${1:-}" == "--update" ]]; then
+    update=true
+    shift
+fi
+
+origin="${SAUCEDEMO_ORIGIN:-https://www.saucedemo.com}"
+target="${1:-src/test/resources/saucedemo}"
+lock="scripts/saucedemo.sha256"
+
+work="$(mktemp -d)"
+trap 'rm -rf "$work"' EXIT
+mkdir -p "$work/build"
+
+fetch() {
+    local path="$1"
+    mkdir -p "$work/build/$(dirname "$path")"
+    curl --fail --silent --show-error --location --retry 3 -o "$work/build/$path" "$origin/$path"
+}
+
+# Optional files the app references, but a build may not ship
+fetch_optional() {
+    fetch "$1" 2>/dev/null || rm -f "$work/build/$1"
+}
+
+fetch index.html
+fetch asset-manifest.json
+for file in manifest.json favicon.ico robots.txt; do
+    fetch_optional "$file"
+done
+
+# Every bundle, stylesheet, image and font of the build, plus anything index.html links directly
+grep -ho '"/static/[^"]*"' "$work/build/asset-manifest.json" "$work/build/index.html" \
+    | tr -d '"' | sed 's|^/||' | grep -v '\.map$' | sort -u > "$work/assets.txt"
+
+if [[ ! -s "$work/assets.txt" ]]; then
+    echo "No /static/ assets found in $origin/asset-manifest.json; is this a SauceDemo build?" >&2
+    exit 1
+fi
+
+while read -r asset; do
+    fetch "$asset"
+done < "$work/assets.txt"
+
+(cd "$work/build" && find . -type f | sed 's|^\./||' | LC_ALL=C sort | xargs sha256sum) > "$work/sums"
+
+if [[ -f "$lock" && "$update" == false ]]; then
+    if ! diff -q "$lock" "$work/sums" > /dev/null; then
+        echo "The build at $origin no longer matches $lock:" >&2
+        diff "$lock" "$work/sums" | sed 's/^/  /' >&2 || true
+        echo "Re-run with --update to pin the new build." >&2
+        exit 1
+    fi
+else
+    cp "$work/sums" "$lock"
+    echo "Pinned $(wc -l < "$lock") files in $lock; commit it so every checkout gets this exact build."
+fi
+
+rm -rf "$target"
+mkdir -p "$(dirname "$target")"
+mv "$work/build" "$target"
+echo "SauceDemo build installed in $target (served when aut.local.enabled=true)."
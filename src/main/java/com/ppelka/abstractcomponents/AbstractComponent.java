@@ -1,5 +1,7 @@
 package com.ppelka.abstractcomponents;
 
+import com.ppelka.core.ConfigReader;
+import com.ppelka.core.DriverManager;
 import org.openqa.selenium.*;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
@@ -7,15 +9,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Base class for all Page Objects and reusable UI components.
  * Provides:
  *  - Stable element lookup
- *  - Explicit wait utilities
+ *  - Batched DOM snapshots (one round trip per list lookup)
+ *  - Explicit wait utilities (event-driven in-page waits, polling as fallback)
  *  - Safe interaction helpers (click, type, getText)
- *  - Page identity contract (isAt)
+ *  - Pipelined interaction chains ({@link ActionBatch})
+ *  - Per-locator latency instrumentation ({@link InteractionMetrics})
+ *  - Declarative page identity checked in one call (isAt, waitForPageToLoad)
  *
  * Ensures consistent and reliable interactions across the entire framework.
  */
@@ -23,12 +32,50 @@ public abstract class AbstractComponent {
 
     private static final Logger log = LoggerFactory.getLogger(AbstractComponent.class);
 
+    private static final String SNAPSHOT_SCRIPT =
+            "var containers = document.querySelectorAll(arguments[0]);" +
+            "var labelSelector = arguments[1], extraSelectors = arguments[2], rows = [];" +
+            "for (var i = 0; i < containers.length; i++) {" +
+            "  var c = containers[i], l = labelSelector ? c.querySelector(labelSelector) : c;" +
+            "  var attrs = {}, extras = {};" +
+            "  if (l) { for (var j = 0; j < l.attributes.length; j++) { attrs[l.attributes[j].name] = l.attributes[j].value; } }" +
+            "  for (var k = 0; k < extraSelectors.length; k++) { extras[extraSelectors[k]] = c.querySelector(extraSelectors[k]); }" +
+            "  rows.push({container: c, label: l, text: l ? (l.innerText || l.textContent || '').trim() : ''," +
+            "             attributes: attrs, extras: extras});" +
+            "}" +
+            "return rows;";
+
+    private static final String IDENTITY_PROBE_SCRIPT =
+            "var fragment = arguments[0], selectors = arguments[1];" +
+            "if (fragment && window.location.href.indexOf(fragment) < 0) return false;" +
+            "for (var i = 0; i < selectors.length; i++) { if (!document.querySelector(selectors[i])) return false; }" +
+            "return true;";
+
     protected final WebDriver driver;
     protected final WebDriverWait wait;
 
+    /** Explicit wait timeout, also the deadline of in-page asynchronous scripts. */
+    private final Duration timeout;
+
+    /** In-page event-driven waits; null when the polling engine must be used. */
+    private final DomWaiter events;
+
+    /**
+     * Navigation epoch in which waitForPageToLoad() last confirmed this page's identity, or -1.
+     * Consumed by the next isAt() and cleared by any other helper call of this page.
+     */
+    private long loadedEpoch = -1;
+
     protected AbstractComponent(WebDriver driver) {
         this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+
+        this.timeout = Duration.ofSeconds(ConfigReader.getInt("explicit.wait.seconds", 10));
+        this.wait = new WebDriverWait(driver, timeout);
+
+        // Shared browser contexts serialize commands, so a blocking in-page wait would stall other tests
+        boolean eventEngine = "event".equalsIgnoreCase(ConfigReader.get("wait.engine", "event"))
+                && !DriverManager.isContextBound(driver);
+        this.events = eventEngine ? new DomWaiter(driver, timeout) : null;
     }
 
     // ============================================================
@@ -37,12 +84,48 @@ public abstract class AbstractComponent {
 
     protected WebElement find(By locator) {
         log.debug("Finding element: {}", locator);
-        return wait.until(ExpectedConditions.presenceOfElementLocated(locator));
+        return timed("find", locator, () -> {
+            if (usesEvents(locator)) {
+                return (WebElement) events.await(DomWaiter.PRESENT,
+                        "presence of element located by: " + locator, Locators.css(locator), null);
+            }
+            return wait.until(ExpectedConditions.presenceOfElementLocated(locator));
+        });
     }
 
     protected List<WebElement> findAll(By locator) {
         log.debug("Finding all elements: {}", locator);
-        return driver.findElements(locator);
+        return timed("findAll", locator, () -> driver.findElements(locator));
+    }
+
+    /**
+     * Captures every container matching {@code container} together with its label text,
+     * label attributes and optional child elements in a single script round trip,
+     * regardless of how many containers are on the page.
+     *
+     * @param container CSS-expressible locator of the repeated container (e.g. a cart item)
+     * @param label     CSS-expressible locator of the label child, or null to use the container itself
+     * @param extras    additional CSS-expressible children to capture (e.g. action buttons)
+     */
+    @SuppressWarnings("unchecked")
+    protected List<DomRow> snapshot(By container, By label, By... extras) {
+        log.debug("Taking DOM snapshot of: {} / {}", container, label);
+
+        List<String> extraSelectors = Arrays.stream(extras).map(Locators::css).toList();
+        Object result = timed("snapshot", container, () -> ((JavascriptExecutor) driver).executeScript(
+                SNAPSHOT_SCRIPT, Locators.css(container), (label == null) ? null : Locators.css(label), extraSelectors));
+
+        List<DomRow> rows = new ArrayList<>();
+        for (Object item : (List<Object>) result) {
+            Map<String, Object> row = (Map<String, Object>) item;
+            rows.add(new DomRow(
+                    (WebElement) row.get("container"),
+                    (WebElement) row.get("label"),
+                    String.valueOf(row.get("text")),
+                    (Map<String, String>) row.get("attributes"),
+                    (Map<String, WebElement>) row.get("extras")));
+        }
+        return rows;
     }
 
     // ============================================================
@@ -51,39 +134,77 @@ public abstract class AbstractComponent {
 
     protected WebElement waitForVisible(By locator) {
         log.debug("Waiting for visibility of: {}", locator);
-        return wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
+        return timed("waitForVisible", locator, () -> {
+            if (usesEvents(locator)) {
+                return (WebElement) events.await(DomWaiter.VISIBLE,
+                        "visibility of element located by " + locator, Locators.css(locator), null);
+            }
+            return wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
+        });
     }
 
     protected WebElement waitForVisible(WebElement element) {
         log.debug("Waiting for visibility of WebElement: {}", element);
-        return wait.until(ExpectedConditions.visibilityOf(element));
+        return timed("waitForVisible", "WebElement", () -> {
+            if (events != null) {
+                return (WebElement) events.await(DomWaiter.ELEMENT_SHOWN, "visibility of " + element, element, null);
+            }
+            return wait.until(ExpectedConditions.visibilityOf(element));
+        });
     }
 
     protected WebElement waitForClickable(By locator) {
         log.debug("Waiting for element to be clickable: {}", locator);
-        return wait.until(ExpectedConditions.elementToBeClickable(locator));
+        return timed("waitForClickable", locator, () -> {
+            if (usesEvents(locator)) {
+                return (WebElement) events.await(DomWaiter.CLICKABLE,
+                        "element to be clickable: " + locator, Locators.css(locator), null);
+            }
+            return wait.until(ExpectedConditions.elementToBeClickable(locator));
+        });
     }
 
     protected void waitForInvisibility(By locator) {
         log.debug("Waiting for invisibility of: {}", locator);
-        wait.until(ExpectedConditions.invisibilityOfElementLocated(locator));
+        timed("waitForInvisibility", locator, () -> {
+            if (usesEvents(locator)) {
+                return events.await(DomWaiter.INVISIBLE,
+                        "element to no longer be visible: " + locator, Locators.css(locator), null);
+            }
+            return wait.until(ExpectedConditions.invisibilityOfElementLocated(locator));
+        });
     }
 
     protected void waitForTextToDisappear(By locator, String text) {
         log.debug("Waiting for text '{}' to disappear from: {}", text, locator);
-        wait.until(driver -> {
-            try {
-                String current = driver.findElement(locator).getText();
-                return !current.equals(text);
-            } catch (NoSuchElementException ignored) {
-                return true;
+        timed("waitForTextToDisappear", locator, () -> {
+            if (usesEvents(locator)) {
+                return events.await(DomWaiter.TEXT_NOT,
+                        "text '" + text + "' to disappear from " + locator, Locators.css(locator), text);
             }
+            return wait.until(driver -> {
+                try {
+                    String current = driver.findElement(locator).getText();
+                    return !current.equals(text);
+                } catch (NoSuchElementException ignored) {
+                    return true;
+                }
+            });
         });
     }
 
     protected void waitForUrlContains(String fragment) {
         log.debug("Waiting for URL to contain: {}", fragment);
-        wait.until(ExpectedConditions.urlContains(fragment));
+        timed("waitForUrlContains", fragment, () -> {
+            if (events != null) {
+                return events.await(DomWaiter.URL_CONTAINS, "url to contain \"" + fragment + "\"", fragment, null);
+            }
+            return wait.until(ExpectedConditions.urlContains(fragment));
+        });
+    }
+
+    private boolean usesEvents(By locator) {
+        return events != null && Locators.isCss(locator);
     }
 
     // ============================================================
@@ -92,29 +213,120 @@ public abstract class AbstractComponent {
 
     protected void click(By locator) {
         log.debug("Clicking element: {}", locator);
-        WebElement element = waitForClickable(locator);
-        try {
-            element.click();
-        } catch (ElementClickInterceptedException e) {
-            log.warn("Click intercepted, retrying with JS: {}", locator);
-            jsClick(element);
-        }
+        timed("click", locator, () -> {
+            WebElement element = waitForClickable(locator);
+            PageIdentity.navigated(driver);
+            try {
+                element.click();
+            } catch (ElementClickInterceptedException e) {
+                log.warn("Click intercepted, retrying with JS: {}", locator);
+                InteractionMetrics.count(getClass(), "clickIntercepted", locator);
+                jsClick(element);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Clicks an element resolved earlier (e.g. from a {@link #snapshot}), with the same
+     * JS fallback as {@link #click(By)} when the click is intercepted.
+     */
+    protected void click(WebElement element) {
+        log.debug("Clicking WebElement: {}", element);
+        timed("click", "WebElement", () -> {
+            waitForVisible(element);
+            PageIdentity.navigated(driver);
+            try {
+                element.click();
+            } catch (ElementClickInterceptedException e) {
+                log.warn("Click intercepted, retrying with JS: {}", element);
+                InteractionMetrics.count(getClass(), "clickIntercepted", "WebElement");
+                jsClick(element);
+            }
+            return null;
+        });
     }
 
     protected void type(By locator, String text) {
         log.debug("Typing '{}' into element: {}", text, locator);
-        WebElement element = waitForVisible(locator);
-        element.clear();
-        element.sendKeys(text);
+        timed("type", locator, () -> {
+            WebElement element = waitForVisible(locator);
+            element.clear();
+            element.sendKeys(text);
+            return null;
+        });
     }
 
     protected String getText(By locator) {
         log.debug("Getting text from: {}", locator);
-        return waitForVisible(locator).getText();
+        return timed("getText", locator, () -> waitForVisible(locator).getText());
     }
 
+    /**
+     * Clicks through JavaScript. Used only as a fallback when a native click fails,
+     * so every call is counted as a JS-click fallback.
+     */
     protected void jsClick(WebElement element) {
-        ((JavascriptExecutor) driver).executeScript("arguments[0].click();", element);
+        PageIdentity.navigated(driver);
+        timed("jsClickFallback", element, () ->
+                ((JavascriptExecutor) driver).executeScript("arguments[0].click();", element));
+    }
+
+    /**
+     * Starts a pipelined chain of waits, typing and clicks that is flushed with
+     * {@link ActionBatch#perform()} in a single round trip where possible.
+     */
+    protected ActionBatch actions() {
+        return new ActionBatch(this, driver, events);
+    }
+
+    /**
+     * Loads a URL in the current window. Invalidates every cached page identity.
+     */
+    protected void navigateTo(String url) {
+        log.debug("Navigating to: {}", url);
+        PageIdentity.navigated(driver);
+        timed("navigateTo", url, () -> {
+            driver.get(url);
+            return null;
+        });
+    }
+
+    // ============================================================
+    // Script helpers
+    // ============================================================
+
+    /**
+     * Runs a synchronous script, recorded in the interaction metrics under the given operation.
+     */
+    protected Object runScript(String operation, Object target, String script, Object... args) {
+        return timed(operation, target, () -> ((JavascriptExecutor) driver).executeScript(script, args));
+    }
+
+    /**
+     * Runs an asynchronous script whose own deadline is {@link #waitTimeout()}.
+     * The WebDriver script timeout is raised if needed so the in-page deadline always fires first.
+     */
+    protected Object runAsyncScript(String operation, Object target, String script, Object... args) {
+        DomWaiter.ensureScriptTimeout(driver, timeout);
+        return timed(operation, target, () -> ((JavascriptExecutor) driver).executeAsyncScript(script, args));
+    }
+
+    protected Duration waitTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Returns the CSS selector of a CSS-expressible locator, for use inside scripts.
+     */
+    protected static String css(By locator) {
+        return Locators.css(locator);
+    }
+
+    private <T> T timed(String operation, Object locator, Supplier<T> action) {
+        // Any interaction may change the DOM, so a previous identity confirmation no longer counts
+        loadedEpoch = -1;
+        return InteractionMetrics.time(getClass(), operation, locator, action);
     }
 
     // ============================================================
@@ -122,8 +334,50 @@ public abstract class AbstractComponent {
     // ============================================================
 
     /**
-     * Ensures that the current page/component is loaded and ready.
-     * Each Page Object must implement its own identity check.
+     * Declares what identifies this page/component.
+     * Each Page Object must provide its own URL fragment and required selectors.
      */
-    public abstract boolean isAt();
+    protected abstract PageIdentity identity();
+
+    /**
+     * Returns true if the current URL and DOM match this page's identity.
+     * Always checked live in one script call, except right after {@link #waitForPageToLoad()}
+     * confirmed the identity with no navigation or page interaction in between.
+     */
+    public boolean isAt() {
+        boolean justLoaded = loadedEpoch == PageIdentity.epoch(driver);
+        loadedEpoch = -1;
+        if (justLoaded) {
+            return true;
+        }
+
+        PageIdentity identity = identity();
+        return timed("isAt", identity, () -> Boolean.TRUE.equals(((JavascriptExecutor) driver)
+                .executeScript(IDENTITY_PROBE_SCRIPT, identity.urlFragment(), identity.selectors())));
+    }
+
+    /**
+     * Blocks until the URL matches and every required element of the identity is visible.
+     * This is the only readiness gate when the driver uses the "eager" or "none"
+     * page load strategy, so every navigation must be followed by it.
+     * Page Objects may override it to add page-specific readiness conditions.
+     */
+    public void waitForPageToLoad() {
+        long epoch = PageIdentity.epoch(driver);
+        PageIdentity identity = identity();
+        log.debug("Waiting for page identity: {}", identity);
+        timed("waitForPageToLoad", identity, () -> {
+            if (events != null) {
+                return events.await(DomWaiter.IDENTITY, "page " + identity,
+                        identity.urlFragment(), identity.selectors());
+            }
+            return wait.until(driver -> {
+                String url = driver.getCurrentUrl();
+                return (identity.urlFragment() == null || url.contains(identity.urlFragment()))
+                        && identity.required().stream().allMatch(locator -> driver.findElements(locator).stream()
+                        .anyMatch(WebElement::isDisplayed));
+            });
+        });
+        loadedEpoch = epoch;
+    }
 }
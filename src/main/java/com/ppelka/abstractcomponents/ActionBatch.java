@@ -0,0 +1,241 @@
+package com.ppelka.abstractcomponents;
+
+import com.ppelka.core.ConfigReader;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Actions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Pipelined interaction builder obtained from {@link AbstractComponent#actions()}.
+ *
+ * Queues waits, typing and clicks and flushes them together in {@link #perform()}:
+ *  - "fast" fidelity: one asynchronous script waits for each element in turn, sets input
+ *    values through the native value setter, dispatches input/change events and clicks.
+ *    The whole chain costs a single WebDriver round trip.
+ *  - "native" fidelity: one script waits for, scrolls to and clears every element,
+ *    then a single W3C action sequence produces real pointer and keyboard events.
+ *    Because elements are resolved up front, queued waits act as preconditions.
+ *
+ * When in-page waits are unavailable (polling engine, shared browser contexts) the
+ * queue is replayed step by step through the regular {@link AbstractComponent} helpers.
+ *
+ * Configuration keys:
+ *  - interaction.fidelity -> "native"
+ */
+public final class ActionBatch {
+
+    private static final Logger log = LoggerFactory.getLogger(ActionBatch.class);
+
+    private static final String SCRIPT =
+            "var steps = arguments[0], fast = arguments[1], timeoutMs = arguments[2], done = arguments[arguments.length - 1];" +
+            "var deadline = Date.now() + timeoutMs, index = 0, elements = [], finished = false, observer, frame;" +
+            "function visible(el) {" +
+            "  var s = window.getComputedStyle(el);" +
+            "  if (s.display === 'none' || s.visibility === 'hidden' || parseFloat(s.opacity) === 0) return false;" +
+            "  var r = el.getBoundingClientRect(); return r.width > 0 && r.height > 0;" +
+            "}" +
+            "function setValue(el, text) {" +
+            // React tracks the value property, so bypass its instance setter
+            "  var proto = el instanceof HTMLTextAreaElement ? HTMLTextAreaElement.prototype : HTMLInputElement.prototype;" +
+            "  el.focus(); Object.getOwnPropertyDescriptor(proto, 'value').set.call(el, text);" +
+            "  el.dispatchEvent(new Event('input', {bubbles: true})); el.dispatchEvent(new Event('change', {bubbles: true}));" +
+            "}" +
+            "function finish(result) {" +
+            "  if (finished) return; finished = true;" +
+            "  if (observer) observer.disconnect(); cancelAnimationFrame(frame); done(result);" +
+            "}" +
+            "function run() {" +
+            "  if (finished) return;" +
+            "  while (index < steps.length) {" +
+            "    var step = steps[index], el = step.element || document.querySelector(step.selector);" +
+            "    if (!el || !visible(el) || (step.kind !== 'wait' && el.disabled)) {" +
+            "      if (Date.now() >= deadline) { finish({failed: index}); }" +
+            "      return;" +
+            "    }" +
+            "    if (!fast) { el.scrollIntoView({block: 'center'}); }" +
+            "    if (step.kind === 'type') { setValue(el, fast ? step.text : ''); }" +
+            "    else if (step.kind === 'click' && fast) { el.click(); }" +
+            "    elements.push(el); index++;" +
+            "  }" +
+            "  finish({elements: elements});" +
+            "}" +
+            "function tick() { run(); if (!finished) frame = requestAnimationFrame(tick); }" +
+            "run();" +
+            "if (!finished) {" +
+            "  observer = new MutationObserver(run);" +
+            "  observer.observe(document, {subtree: true, childList: true, attributes: true, characterData: true});" +
+            "  frame = requestAnimationFrame(tick);" +
+            "  setTimeout(run, timeoutMs);" +
+            "}";
+
+    private enum Kind { WAIT, TYPE, CLICK }
+
+    /** One queued step; targets either a locator or an element resolved earlier. */
+    private record Step(Kind kind, By locator, WebElement element, String text) {
+
+        private Map<String, Object> toScript() {
+            Map<String, Object> step = new HashMap<>();
+            step.put("kind", kind.name().toLowerCase());
+            step.put("text", text == null ? "" : text);
+            if (element != null) {
+                step.put("element", element);
+            } else {
+                step.put("selector", Locators.css(locator));
+            }
+            return step;
+        }
+
+        private boolean pipelinable() {
+            return element != null || Locators.isCss(locator);
+        }
+
+        @Override
+        public String toString() {
+            return kind.name().toLowerCase() + " " + (element != null ? "element" : locator);
+        }
+    }
+
+    private final AbstractComponent page;
+    private final WebDriver driver;
+    private final DomWaiter events;
+    private final List<Step> steps = new ArrayList<>();
+
+    ActionBatch(AbstractComponent page, WebDriver driver, DomWaiter events) {
+        this.page = page;
+        this.driver = driver;
+        this.events = events;
+    }
+
+    // ============================================================
+    // Queueing
+    // ============================================================
+
+    public ActionBatch waitForVisible(By locator) {
+        steps.add(new Step(Kind.WAIT, locator, null, null));
+        return this;
+    }
+
+    public ActionBatch type(By locator, String text) {
+        steps.add(new Step(Kind.TYPE, locator, null, text));
+        return this;
+    }
+
+    public ActionBatch click(By locator) {
+        steps.add(new Step(Kind.CLICK, locator, null, null));
+        return this;
+    }
+
+    /** Clicks an element already resolved by the page, e.g. a button inside a list row. */
+    public ActionBatch click(WebElement element) {
+        steps.add(new Step(Kind.CLICK, null, element, null));
+        return this;
+    }
+
+    /** Returns true if interaction.fidelity is "fast" (script-driven input instead of native events). */
+    public static boolean isFastFidelity() {
+        return "fast".equalsIgnoreCase(ConfigReader.get("interaction.fidelity", "native"));
+    }
+
+    // ============================================================
+    // Flushing
+    // ============================================================
+
+    /**
+     * Executes every queued step in order and clears the queue.
+     *
+     * @throws TimeoutException if an element does not become ready within the explicit wait timeout
+     */
+    public void perform() {
+        List<Step> queued = List.copyOf(steps);
+        steps.clear();
+        if (queued.isEmpty()) {
+            return;
+        }
+
+        boolean pipelined = events != null && queued.stream().allMatch(Step::pipelinable);
+        boolean fast = isFastFidelity();
+        log.debug("Performing {} queued step(s) ({}, {}): {}", queued.size(),
+                pipelined ? "pipelined" : "sequential", fast ? "fast" : "native", queued);
+
+        PageIdentity.navigated(driver);
+        InteractionMetrics.time(page.getClass(), "actions", describe(queued), () -> {
+            if (!pipelined) {
+                replay(queued);
+            } else if (fast) {
+                resolve(queued, true);
+            } else {
+                dispatchNative(queued, resolve(queued, false));
+            }
+            return null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<WebElement> resolve(List<Step> queued, boolean fast) {
+        events.ensureScriptTimeout();
+
+        List<Map<String, Object>> script = queued.stream().map(Step::toScript).collect(Collectors.toList());
+        Map<String, Object> result = (Map<String, Object>) ((JavascriptExecutor) driver)
+                .executeAsyncScript(SCRIPT, script, fast, events.timeout().toMillis());
+
+        Object failed = result.get("failed");
+        if (failed != null) {
+            Step step = queued.get(((Number) failed).intValue());
+            throw new TimeoutException("Expected condition failed: waiting for " + step
+                    + " (tried for " + events.timeout().getSeconds() + " second(s) using in-page events)");
+        }
+        return (List<WebElement>) result.get("elements");
+    }
+
+    private void dispatchNative(List<Step> queued, List<WebElement> elements) {
+        Actions actions = new Actions(driver);
+        for (int i = 0; i < queued.size(); i++) {
+            Step step = queued.get(i);
+            switch (step.kind()) {
+                case TYPE -> actions.click(elements.get(i)).sendKeys(step.text());
+                case CLICK -> actions.click(elements.get(i));
+                case WAIT -> { }
+            }
+        }
+
+        try {
+            actions.perform();
+        } catch (WebDriverException e) {
+            // Pointer input can be rejected by overlays or unusual layouts; fall back to element commands
+            log.warn("Native action sequence failed, replaying step by step: {}", e.getMessage());
+            replay(queued);
+        }
+    }
+
+    private void replay(List<Step> queued) {
+        for (Step step : queued) {
+            switch (step.kind()) {
+                case WAIT -> page.waitForVisible(step.locator());
+                case TYPE -> page.type(step.locator(), step.text());
+                case CLICK -> {
+                    if (step.element() != null) {
+                        page.click(step.element());
+                    } else {
+                        page.click(step.locator());
+                    }
+                }
+            }
+        }
+    }
+
+    private static String describe(List<Step> queued) {
+        return queued.stream().map(Step::toString).collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,33 @@
+package com.ppelka.abstractcomponents;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.Map;
+
+/**
+ * One row of a batched DOM snapshot taken by {@link AbstractComponent#snapshot(By, By, By...)}.
+ *
+ * @param container  the matched container element (e.g. a cart item)
+ * @param label      the label child inside the container, or the container itself if no label selector was given
+ * @param text       trimmed visible text of the label
+ * @param attributes all attributes of the label element
+ * @param extras     additional child elements keyed by their CSS selector (null if absent)
+ */
+public record DomRow(WebElement container,
+                     WebElement label,
+                     String text,
+                     Map<String, String> attributes,
+                     Map<String, WebElement> extras) {
+
+    /**
+     * Returns the child element captured for the given locator, or null if the container has none.
+     */
+    public WebElement extra(By locator) {
+        return extras.get(Locators.css(locator));
+    }
+
+    public String attribute(String name) {
+        return attributes.get(name);
+    }
+}
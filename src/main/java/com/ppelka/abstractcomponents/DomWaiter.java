@@ -0,0 +1,133 @@
+package com.ppelka.abstractcomponents;
+
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Event-driven wait engine.
+ *
+ * Instead of polling the browser every 500 ms, a single asynchronous script is injected
+ * that re-evaluates the condition on every DOM mutation, URL change and animation frame
+ * tick inside the page, and returns as soon as the condition holds (or its own deadline
+ * expires). A satisfied wait therefore costs exactly one WebDriver round trip.
+ *
+ * If the document is replaced while waiting (navigation), the script is aborted by the
+ * browser and re-armed on the new document until the overall deadline.
+ */
+final class DomWaiter {
+
+    private static final Logger log = LoggerFactory.getLogger(DomWaiter.class);
+
+    // Conditions receive (a, b) and return a truthy result when satisfied
+    static final String PRESENT       = "var el = document.querySelector(a); return el;";
+    static final String VISIBLE       = "var el = document.querySelector(a); return el && visible(el) ? el : null;";
+    static final String ELEMENT_SHOWN = "return a.isConnected && visible(a) ? a : null;";
+    static final String CLICKABLE     = "var el = document.querySelector(a); return el && visible(el) && !el.disabled ? el : null;";
+    static final String INVISIBLE     = "var el = document.querySelector(a); return !el || !visible(el);";
+    static final String TEXT_NOT      = "var el = document.querySelector(a); return !el || (el.innerText || '').trim() !== b;";
+    static final String URL_CONTAINS  = "return window.location.href.indexOf(a) >= 0;";
+    static final String IDENTITY      = "if (a && window.location.href.indexOf(a) < 0) return null;" +
+            " for (var i = 0; i < b.length; i++) { var el = document.querySelector(b[i]); if (!el || !visible(el)) return null; }" +
+            " return true;";
+
+    private static final String SCRIPT_TEMPLATE =
+            "var a = arguments[0], b = arguments[1], timeoutMs = arguments[2], done = arguments[arguments.length - 1];" +
+            "function visible(el) {" +
+            "  var s = window.getComputedStyle(el);" +
+            "  if (s.display === 'none' || s.visibility === 'hidden' || parseFloat(s.opacity) === 0) return false;" +
+            "  var r = el.getBoundingClientRect(); return r.width > 0 && r.height > 0;" +
+            "}" +
+            "function check() { try { %s } catch (e) { return null; } }" +
+            "var first = check(); if (first) { done(first); return; }" +
+            "var finished = false, observer, timer, frame;" +
+            "function finish(result) {" +
+            "  if (finished) return; finished = true;" +
+            "  observer.disconnect(); clearTimeout(timer); cancelAnimationFrame(frame);" +
+            "  window.removeEventListener('popstate', onEvent); window.removeEventListener('hashchange', onEvent);" +
+            "  done(result);" +
+            "}" +
+            "function onEvent() { var r = check(); if (r) finish(r); }" +
+            // Style-only changes (CSS transitions) do not mutate the DOM, so also re-check once per frame
+            "function tick() { onEvent(); if (!finished) frame = requestAnimationFrame(tick); }" +
+            "observer = new MutationObserver(onEvent);" +
+            "observer.observe(document, {subtree: true, childList: true, attributes: true, characterData: true});" +
+            "window.addEventListener('popstate', onEvent); window.addEventListener('hashchange', onEvent);" +
+            "frame = requestAnimationFrame(tick);" +
+            "timer = setTimeout(function () { finish(null); }, timeoutMs);";
+
+    /** Drivers whose script timeout was already raised to cover the explicit wait timeout. */
+    private static final Set<WebDriver> scriptTimeoutRaised = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private final WebDriver driver;
+    private final Duration timeout;
+
+    DomWaiter(WebDriver driver, Duration timeout) {
+        this.driver = driver;
+        this.timeout = timeout;
+    }
+
+    Duration timeout() {
+        return timeout;
+    }
+
+    /**
+     * Blocks until the condition returns a truthy value and returns that value.
+     *
+     * @param condition   one of the condition snippets defined in this class
+     * @param description human-readable expectation used in the timeout message
+     * @param a           first condition argument (selector, element or URL fragment)
+     * @param b           second condition argument, or null
+     * @throws TimeoutException if the condition does not hold within the timeout
+     */
+    Object await(String condition, String description, Object a, Object b) {
+        ensureScriptTimeout();
+
+        String script = String.format(SCRIPT_TEMPLATE, condition);
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        while (true) {
+            long remainingMs = Duration.ofNanos(deadline - System.nanoTime()).toMillis();
+            if (remainingMs <= 0) {
+                break;
+            }
+
+            try {
+                Object result = ((JavascriptExecutor) driver).executeAsyncScript(script, a, b, remainingMs);
+                if (result != null && !Boolean.FALSE.equals(result)) {
+                    return result;
+                }
+            } catch (JavascriptException e) {
+                // The document was unloaded by a navigation; re-arm on the new document
+                log.debug("Wait script aborted ({}), re-arming: {}", description, e.getMessage());
+            }
+        }
+
+        throw new TimeoutException("Expected condition failed: waiting for " + description
+                + " (tried for " + timeout.getSeconds() + " second(s) using in-page events)");
+    }
+
+    /**
+     * The default WebDriver script timeout is 30 s; raise it once per driver
+     * if the explicit wait timeout is longer, so the in-page deadline always fires first.
+     */
+    void ensureScriptTimeout() {
+        ensureScriptTimeout(driver, timeout);
+    }
+
+    static void ensureScriptTimeout(WebDriver driver, Duration timeout) {
+        Duration needed = timeout.plusSeconds(5);
+        if (needed.compareTo(Duration.ofSeconds(30)) > 0 && scriptTimeoutRaised.add(driver)) {
+            driver.manage().timeouts().scriptTimeout(needed);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.ppelka.abstractcomponents;
+
+import com.ppelka.core.ConfigReader;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Latency instrumentation for {@link AbstractComponent} helpers.
+ *
+ * Every helper call is recorded in a histogram keyed by page class, operation and locator,
+ * both for the current test (per thread) and for the whole run. JS-click fallbacks and
+ * intercepted clicks are counted separately.
+ *
+ * Helpers call each other (e.g. click waits for clickability), so each call records its
+ * self time: its duration minus the time of the helper calls nested inside it. The totals
+ * of all rows then add up to the real time spent in the page layer.
+ *
+ * Configuration keys:
+ *  - metrics.enabled -> "true"
+ */
+public final class InteractionMetrics {
+
+    /** Bucket upper bounds in milliseconds; the last bucket is open-ended. */
+    private static final long[] BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+
+    private static final boolean enabled = ConfigReader.getBoolean("metrics.enabled", true);
+
+    private static final Map<Key, Histogram> run = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Map<Key, Histogram>> test = ThreadLocal.withInitial(HashMap::new);
+
+    /** Time spent in nested calls, one entry per helper call in progress on this thread. */
+    private static final ThreadLocal<Deque<long[]>> nested = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private InteractionMetrics() {
+        // Utility class; prevent instantiation
+    }
+
+    // ============================================================
+    // Recording
+    // ============================================================
+
+    static <T> T time(Class<?> page, String operation, Object locator, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+
+        Deque<long[]> stack = nested.get();
+        long[] childNanos = new long[1];
+        stack.push(childNanos);
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = action.get();
+            failed = false;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            stack.pop();
+            if (!stack.isEmpty()) {
+                stack.peek()[0] += elapsed;
+            }
+            record(new Key(page.getSimpleName(), operation, String.valueOf(locator)),
+                    elapsed - childNanos[0], failed);
+        }
+    }
+
+    static void count(Class<?> page, String event, Object locator) {
+        if (enabled) {
+            record(new Key(page.getSimpleName(), event, String.valueOf(locator)), 0, false);
+        }
+    }
+
+    private static void record(Key key, long nanos, boolean failed) {
+        long micros = nanos / 1_000;
+        run.computeIfAbsent(key, k -> new Histogram()).add(micros, failed);
+        test.get().computeIfAbsent(key, k -> new Histogram()).add(micros, failed);
+    }
+
+    // ============================================================
+    // Reporting
+    // ============================================================
+
+    /**
+     * Returns the metrics recorded by the current thread since the previous call and resets them.
+     */
+    public static String drainTestReport() {
+        Map<Key, Histogram> current = test.get();
+        String report = format(new ArrayList<>(current.entrySet()), Integer.MAX_VALUE);
+        current.clear();
+        return report;
+    }
+
+    /**
+     * Returns the whole-run metrics, slowest locators (by total time) first.
+     *
+     * @param limit maximum number of rows
+     */
+    public static String runSummary(int limit) {
+        return format(new ArrayList<>(run.entrySet()), limit);
+    }
+
+    private static String format(List<Map.Entry<Key, Histogram>> entries, int limit) {
+        if (entries.isEmpty()) {
+            return "No interactions recorded";
+        }
+
+        entries.sort(Comparator.comparingLong((Map.Entry<Key, Histogram> e) -> e.getValue().totalMicros())
+                .reversed());
+
+        StringBuilder sb = new StringBuilder(String.format("%-26s %-22s %7s %6s %9s %9s %9s %9s  %s%n",
+                "page", "operation", "count", "fail", "total ms", "p50 ms", "p95 ms", "max ms", "locator"));
+
+        for (Map.Entry<Key, Histogram> entry : entries.subList(0, Math.min(limit, entries.size()))) {
+            Key key = entry.getKey();
+            Histogram h = entry.getValue();
+            sb.append(String.format("%-26s %-22s %7d %6d %9.1f %9s %9s %9.1f  %s%n",
+                    key.page, key.operation, h.count(), h.failures(), h.totalMicros() / 1000.0,
+                    h.percentile(0.50), h.percentile(0.95), h.maxMicros() / 1000.0, key.locator));
+        }
+        return sb.toString();
+    }
+
+    // ============================================================
+    // Data structures
+    // ============================================================
+
+    private record Key(String page, String operation, String locator) {
+    }
+
+    private static final class Histogram {
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MS.length + 1);
+        private final LongAdder total = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+        private void add(long micros, boolean failed) {
+            int bucket = 0;
+            while (bucket < BOUNDS_MS.length && micros > BOUNDS_MS[bucket] * 1000) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            total.add(micros);
+            max.accumulate(micros);
+            if (failed) {
+                failures.increment();
+            }
+        }
+
+        private long count() {
+            long count = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                count += buckets.get(i);
+            }
+            return count;
+        }
+
+        private long failures() {
+            return failures.sum();
+        }
+
+        private long totalMicros() {
+            return total.sum();
+        }
+
+        private long maxMicros() {
+            return max.get();
+        }
+
+        /** Upper bound of the bucket containing the given percentile, e.g. "<=50". */
+        private String percentile(double p) {
+            long target = (long) Math.ceil(count() * p);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= target && seen > 0) {
+                    return i < BOUNDS_MS.length ? "<=" + BOUNDS_MS[i] : ">" + BOUNDS_MS[BOUNDS_MS.length - 1];
+                }
+            }
+            return "-";
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ppelka.abstractcomponents;
+
+import org.openqa.selenium.By;
+
+/**
+ * Converts Selenium locators into CSS selectors usable inside injected scripts.
+ */
+final class Locators {
+
+    private Locators() {
+        // Utility class; prevent instantiation
+    }
+
+    /**
+     * Returns the CSS selector equivalent of a locator.
+     * Selenium already expresses By.id, By.className and By.name as CSS selectors remotely.
+     *
+     * @throws IllegalArgumentException for locators without a CSS form (e.g. XPath, link text)
+     */
+    static String css(By locator) {
+        if (locator instanceof By.Remotable remotable) {
+            By.Remotable.Parameters params = remotable.getRemoteParameters();
+            if ("css selector".equals(params.using())) {
+                return String.valueOf(params.value());
+            }
+        }
+        throw new IllegalArgumentException("Locator has no CSS selector form: " + locator);
+    }
+
+    /**
+     * Returns true if the locator can be evaluated with querySelector.
+     */
+    static boolean isCss(By locator) {
+        return locator instanceof By.Remotable remotable
+                && "css selector".equals(remotable.getRemoteParameters().using());
+    }
+}
@@ -0,0 +1,55 @@
+package com.ppelka.abstractcomponents;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Declarative identity of a page: a URL fragment plus the selectors that must be present.
+ *
+ * {@link AbstractComponent} checks the whole identity in a single script call. A
+ * {@code waitForPageToLoad()} confirmation is remembered until the next navigation issued
+ * through the page layer (clicks, action chains, {@code navigateTo}) or the next helper call,
+ * so an {@code isAt()} right after it costs no extra round trip.
+ *
+ * @param urlFragment text the current URL must contain, or null to skip the URL check
+ * @param required    CSS-expressible locators that must be present on the page
+ */
+public record PageIdentity(String urlFragment, List<By> required) {
+
+    /** Navigation counter per driver; any cached verification from an older epoch is stale. */
+    private static final Map<WebDriver, Long> epochs = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public static PageIdentity of(String urlFragment, By... required) {
+        return new PageIdentity(urlFragment, List.of(required));
+    }
+
+    List<String> selectors() {
+        return required.stream().map(Locators::css).toList();
+    }
+
+    @Override
+    public String toString() {
+        return "url containing \"" + urlFragment + "\" with " + required;
+    }
+
+    // ============================================================
+    // Navigation epochs
+    // ============================================================
+
+    static long epoch(WebDriver driver) {
+        return epochs.getOrDefault(driver, 0L);
+    }
+
+    /**
+     * Marks that the page shown by the driver may have changed.
+     * Code that navigates outside the page layer (e.g. state seeding) must call it.
+     */
+    public static void navigated(WebDriver driver) {
+        epochs.merge(driver, 1L, Long::sum);
+    }
+}
@@ -0,0 +1,311 @@
+package com.ppelka.core;
+
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.openqa.selenium.support.decorators.WebDriverDecorator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hosts many isolated browser contexts inside one Chromium process.
+ *
+ * Each lease creates a new CDP browser context (separate cookie jar, storage and cache)
+ * with its own window, and hands the test a driver bound to that window. Commands from
+ * all contexts of one process are serialized and routed to the right window automatically.
+ * Quitting a context-bound driver disposes the context, never the shared browser.
+ * A shared browser that stops responding (crash, lost session) is retired and the
+ * lease is retried once on a live or newly launched browser; a context that fails to open
+ * in a browser that still responds is cleaned up and retried without touching the browser.
+ *
+ * Only Chromium browsers (chrome, edge) support contexts; other browsers fall back
+ * to a regular session per test. Frame selection is not preserved when commands
+ * of several contexts interleave, since refocusing a window resets it to the top document.
+ *
+ * Configuration keys:
+ *  - driver.contexts.enabled      -> "false"
+ *  - driver.contexts.per.browser  -> "8"
+ */
+final class BrowserContexts {
+
+    private static final Logger log = LoggerFactory.getLogger(BrowserContexts.class);
+
+    private final int contextsPerBrowser;
+
+    private final List<Host> hosts = new CopyOnWriteArrayList<>();
+
+    /** Held while a shared browser starts, so launches do not block releases or leases of live hosts. */
+    private final ReentrantLock launchLock = new ReentrantLock();
+
+    BrowserContexts(int contextsPerBrowser) {
+        this.contextsPerBrowser = Math.max(1, contextsPerBrowser);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "browser-contexts-shutdown"));
+    }
+
+    static boolean supports(String browserName) {
+        WebDriverFactory.BrowserType type = WebDriverFactory.BrowserType.from(browserName);
+        return type == WebDriverFactory.BrowserType.CHROME || type == WebDriverFactory.BrowserType.EDGE;
+    }
+
+    // ============================================================
+    // Lease / release
+    // ============================================================
+
+    /**
+     * Creates a fresh isolated context in a browser process with free capacity
+     * and returns a driver bound to its window.
+     */
+    WebDriver lease(String browserName) {
+        WebDriverFactory.BrowserType type = WebDriverFactory.BrowserType.from(browserName);
+        for (int attempt = 1; ; attempt++) {
+            Host host = hostFor(type, browserName);
+            try {
+                return host.openContext();
+            } catch (WebDriverException e) {
+                closed(host);
+                // Only a browser that lost its session is replaced; a transient CDP error must not
+                // take down the other tests running in the same browser
+                if (e instanceof NoSuchSessionException || !host.isAlive()) {
+                    retire(host, e);
+                } else {
+                    log.warn("Could not open a browser context (attempt {}): {}", attempt, e.getMessage());
+                }
+                if (attempt > 1) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if the driver is bound to a context of a shared browser process.
+     */
+    static boolean isContextBound(WebDriver driver) {
+        return driver instanceof Decorated<?> decorated
+                && decorated.getDecorator() instanceof ContextBinding;
+    }
+
+    /**
+     * Reserves a context in a live browser with free capacity, launching a new browser when
+     * there is none. Only one browser launches at a time, outside the instance lock.
+     */
+    private Host hostFor(WebDriverFactory.BrowserType type, String browserName) {
+        Host host = reserve(type);
+        if (host != null) {
+            return host;
+        }
+
+        launchLock.lock();
+        try {
+            // Another lease may have launched a browser while this one waited
+            host = reserve(type);
+            if (host != null) {
+                return host;
+            }
+
+            log.info("Launching shared {} process #{} for browser contexts", type, hosts.size() + 1);
+            host = new Host(type, DriverManager.launch(browserName));
+            synchronized (this) {
+                host.openContexts++;
+                hosts.add(host);
+            }
+            return host;
+        } finally {
+            launchLock.unlock();
+        }
+    }
+
+    private synchronized Host reserve(WebDriverFactory.BrowserType type) {
+        for (Host host : hosts) {
+            if (host.type == type && host.openContexts < contextsPerBrowser) {
+                host.openContexts++;
+                return host;
+            }
+        }
+        return null;
+    }
+
+    private synchronized void closed(Host host) {
+        host.openContexts--;
+    }
+
+    /** Stops handing out contexts of a browser that failed, and disposes of it. */
+    private void retire(Host host, WebDriverException cause) {
+        if (hosts.remove(host)) {
+            log.warn("Shared {} process is not responding, replacing it: {}", host.type, cause.getMessage());
+            DriverManager.dispose(host.browser);
+        }
+    }
+
+    private void shutdown() {
+        for (Host host : hosts) {
+            try {
+                host.browser.quit();
+            } catch (Exception ignored) {
+                // Best effort during JVM shutdown
+            }
+        }
+        hosts.clear();
+    }
+
+    // ============================================================
+    // Shared browser process
+    // ============================================================
+
+    private final class Host {
+
+        private final WebDriverFactory.BrowserType type;
+        private final WebDriver browser;
+        private final HasCdp cdp;
+
+        /** Serializes commands, since the current window is global to the WebDriver session. */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private String currentWindow;
+        private int openContexts;
+
+        private Host(WebDriverFactory.BrowserType type, WebDriver browser) {
+            this.type = type;
+            this.browser = browser;
+            this.cdp = (HasCdp) browser;
+            this.currentWindow = browser.getWindowHandle();
+        }
+
+        private WebDriver openContext() {
+            lock.lock();
+            try {
+                Map<String, Object> context = cdp.executeCdpCommand("Target.createBrowserContext", Map.of());
+                String contextId = (String) context.get("browserContextId");
+
+                Map<String, Object> target;
+                try {
+                    target = cdp.executeCdpCommand("Target.createTarget",
+                            Map.of("url", "about:blank", "browserContextId", contextId, "newWindow", true));
+                } catch (WebDriverException e) {
+                    discard(contextId);
+                    throw e;
+                }
+
+                // ChromeDriver uses CDP target ids as window handles
+                String window = (String) target.get("targetId");
+                log.debug("Opened browser context {} in window {}", contextId, window);
+
+                if (LeanNetwork.isEnabled()) {
+                    // The URL block list is per page, so the new window needs its own
+                    focus(window);
+                    LeanNetwork.blockUrls(browser);
+                }
+
+                return new ContextBinding(this, contextId, window).decorate(browser);
+            } catch (WebDriverException e) {
+                currentWindow = null;
+                throw e;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Best-effort disposal of a context whose window could not be created. */
+        private void discard(String contextId) {
+            try {
+                cdp.executeCdpCommand("Target.disposeBrowserContext", Map.of("browserContextId", contextId));
+            } catch (WebDriverException e) {
+                log.debug("Could not dispose browser context {}: {}", contextId, e.getMessage());
+            }
+        }
+
+        /** Liveness probe that does not depend on any particular window still being open. */
+        private boolean isAlive() {
+            lock.lock();
+            try {
+                browser.getWindowHandles();
+                return true;
+            } catch (WebDriverException e) {
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void focus(String window) {
+            if (!window.equals(currentWindow)) {
+                browser.switchTo().window(window);
+                currentWindow = window;
+            }
+        }
+
+        private void dispose(String contextId) {
+            lock.lock();
+            try {
+                // Disposing the context also closes every window that belongs to it
+                cdp.executeCdpCommand("Target.disposeBrowserContext", Map.of("browserContextId", contextId));
+                currentWindow = null;
+            } catch (Exception e) {
+                log.warn("Failed to dispose browser context {}: {}", contextId, e.getMessage());
+            } finally {
+                lock.unlock();
+                closed(this);
+            }
+        }
+    }
+
+    // ============================================================
+    // Context-bound driver
+    // ============================================================
+
+    /**
+     * Routes every call of the decorated driver (and the elements it returns)
+     * to the context's window under the host lock.
+     */
+    private final class ContextBinding extends WebDriverDecorator<WebDriver> {
+
+        private final Host host;
+        private final String contextId;
+        private final String window;
+        private volatile boolean disposed;
+
+        private ContextBinding(Host host, String contextId, String window) {
+            this.host = host;
+            this.contextId = contextId;
+            this.window = window;
+        }
+
+        @Override
+        public Object call(Decorated<?> target, Method method, Object[] args) throws Throwable {
+            boolean onDriver = target.getOriginal() instanceof WebDriver;
+            if (onDriver && ("quit".equals(method.getName()) || "close".equals(method.getName()))) {
+                if (!disposed) {
+                    disposed = true;
+                    host.dispose(contextId);
+                }
+                return null;
+            }
+
+            host.lock.lock();
+            try {
+                host.focus(window);
+                Object result = super.call(target, method, args);
+
+                if (target.getOriginal() instanceof WebDriver.TargetLocator && "window".equals(method.getName())) {
+                    // The test switched windows itself; re-focus on the next call
+                    host.currentWindow = null;
+                }
+                return result;
+            } catch (NoSuchSessionException e) {
+                // The shared browser is gone; later leases must not land on it
+                retire(host, e);
+                throw e;
+            } finally {
+                host.lock.unlock();
+            }
+        }
+    }
+}
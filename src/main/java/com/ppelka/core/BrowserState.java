@@ -0,0 +1,95 @@
+package com.ppelka.core;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Snapshot of the client-side state of one origin: URL, cookies, localStorage and sessionStorage.
+ *
+ * Capturing costs two round trips and restoring costs one per cookie plus one for both
+ * storages, which makes restoring far cheaper than rebuilding the same state through the UI.
+ */
+public final class BrowserState {
+
+    private static final String CAPTURE_SCRIPT =
+            "function dump(storage) { var r = {}; for (var i = 0; i < storage.length; i++) {" +
+            "  var k = storage.key(i); r[k] = storage.getItem(k); } return r; }" +
+            "return {url: window.location.href, origin: window.location.origin, local: dump(localStorage), session: dump(sessionStorage)};";
+
+    private static final String RESTORE_SCRIPT =
+            "if (window.location.origin !== arguments[0]) return false;" +
+            "localStorage.clear(); sessionStorage.clear();" +
+            "for (var k in arguments[1]) localStorage.setItem(k, arguments[1][k]);" +
+            "for (var k in arguments[2]) sessionStorage.setItem(k, arguments[2][k]);" +
+            "return true;";
+
+    private final String url;
+    private final String origin;
+    private final Set<Cookie> cookies;
+    private final Map<String, String> localStorage;
+    private final Map<String, String> sessionStorage;
+    private final Instant capturedAt;
+
+    private BrowserState(String url, String origin, Set<Cookie> cookies,
+                         Map<String, String> localStorage, Map<String, String> sessionStorage) {
+        this.url = url;
+        this.origin = origin;
+        this.cookies = Set.copyOf(cookies);
+        this.localStorage = Map.copyOf(localStorage);
+        this.sessionStorage = Map.copyOf(sessionStorage);
+        this.capturedAt = Instant.now();
+    }
+
+    /**
+     * Captures the state of the origin of the page currently shown by the driver.
+     */
+    @SuppressWarnings("unchecked")
+    public static BrowserState capture(WebDriver driver) {
+        Map<String, Object> storage = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT);
+        return new BrowserState(
+                String.valueOf(storage.get("url")),
+                String.valueOf(storage.get("origin")),
+                driver.manage().getCookies(),
+                (Map<String, String>) storage.get("local"),
+                (Map<String, String>) storage.get("session"));
+    }
+
+    /**
+     * Replaces the driver's cookies and storage of the captured origin with this snapshot.
+     * Loads the origin first if the driver currently shows a different one. The caller is
+     * responsible for navigating to the page that should observe the restored state.
+     */
+    public void restore(WebDriver driver) {
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        if (!Boolean.TRUE.equals(js.executeScript(RESTORE_SCRIPT, origin, localStorage, sessionStorage))) {
+            // Cookies and storage can only be written from a document of the same origin
+            driver.get(origin + "/");
+            js.executeScript(RESTORE_SCRIPT, origin, localStorage, sessionStorage);
+        }
+
+        driver.manage().deleteAllCookies();
+        for (Cookie cookie : cookies) {
+            driver.manage().addCookie(cookie);
+        }
+    }
+
+    /**
+     * URL of the page that was shown when the state was captured.
+     */
+    public String url() {
+        return url;
+    }
+
+    public String origin() {
+        return origin;
+    }
+
+    public Instant capturedAt() {
+        return capturedAt;
+    }
+}
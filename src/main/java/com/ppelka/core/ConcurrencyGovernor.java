@@ -0,0 +1,355 @@
+package com.ppelka.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resource-aware limit on concurrently running browsers.
+ *
+ * Every browser launch takes a launch slot (released once the session is up) and a session
+ * slot (released when the session is quit). The session limit is recomputed periodically
+ * from the number of cores, MemAvailable in /proc/meminfo and the resident memory actually
+ * used by the browsers of this JVM, so the effective number of workers grows while the
+ * machine has headroom and shrinks when it starts running out. Worker threads that would
+ * exceed the limit first quit an idle warm-pool session, if there is one, and otherwise
+ * queue until a session is quit or the limit grows.
+ *
+ * Without /proc (non-Linux hosts) only the core count is used.
+ *
+ * Configuration keys:
+ *  - governor.enabled              -> "false"
+ *  - governor.min.sessions         -> "1"
+ *  - governor.max.sessions         -> "0" (no upper bound besides resources)
+ *  - governor.max.launches         -> "2"
+ *  - governor.cores.per.session    -> "1"
+ *  - governor.memory.reserve.mb    -> "1024"
+ *  - governor.browser.rss.mb       -> "500" (estimate until a browser has been measured)
+ *  - governor.sample.millis        -> "2000"
+ *  - governor.max.wait.seconds     -> "60"
+ */
+public final class ConcurrencyGovernor {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyGovernor.class);
+
+    private static final Path MEMINFO = Path.of("/proc/meminfo");
+
+    /** Queue count and queued nanoseconds of the current thread since the last report. */
+    private static final ThreadLocal<long[]> testWait = ThreadLocal.withInitial(() -> new long[2]);
+
+    private static final ConcurrencyGovernor instance = ConfigReader.getBoolean("governor.enabled", false)
+            ? new ConcurrencyGovernor()
+            : null;
+
+    private final int minSessions = Math.max(1, ConfigReader.getInt("governor.min.sessions", 1));
+    private final int maxSessions = ConfigReader.getInt("governor.max.sessions", 0);
+    private final int maxLaunches = Math.max(1, ConfigReader.getInt("governor.max.launches", 2));
+    private final int coresPerSession = Math.max(1, ConfigReader.getInt("governor.cores.per.session", 1));
+    private final long reserveKb = ConfigReader.getInt("governor.memory.reserve.mb", 1024) * 1024L;
+    private final long sampleNanos = TimeUnit.MILLISECONDS.toNanos(ConfigReader.getInt("governor.sample.millis", 2000));
+    private final long maxWaitNanos = TimeUnit.SECONDS.toNanos(ConfigReader.getInt("governor.max.wait.seconds", 60));
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    private int live;
+    private int launching;
+    private int limit;
+    private long sampledAt;
+
+    /** Moving average of resident memory per live browser, in kB. */
+    private long rssPerSessionKb = ConfigReader.getInt("governor.browser.rss.mb", 500) * 1024L;
+
+    // Statistics
+    private final LongAdder launches = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder overcommitted = new LongAdder();
+    private final LongAdder waitedNanos = new LongAdder();
+    private final LongAccumulator maxWaitedNanos = new LongAccumulator(Long::max, 0);
+    private final LongAccumulator lowestLimit = new LongAccumulator(Long::min, Long.MAX_VALUE);
+    private final LongAccumulator highestLimit = new LongAccumulator(Long::max, 0);
+    private final LongAccumulator peakLive = new LongAccumulator(Long::max, 0);
+
+    private ConcurrencyGovernor() {
+        lock.lock();
+        try {
+            resample(System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+        log.info("Concurrency governor enabled: initial limit {} browser(s), {} concurrent launch(es)",
+                limit, maxLaunches);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> log.info("Concurrency governor summary:\n{}",
+                runSummary()), "governor-summary"));
+    }
+
+    public static boolean isEnabled() {
+        return instance != null;
+    }
+
+    // ============================================================
+    // Admission
+    // ============================================================
+
+    /**
+     * Blocks until a new browser may be launched and reserves a launch and a session slot.
+     * Idle warm-pool sessions are reclaimed before queueing; as a last resort, waiting ends
+     * after governor.max.wait.seconds and the browser is launched anyway.
+     */
+    static void beforeLaunch() {
+        if (instance != null) {
+            instance.acquire();
+        }
+    }
+
+    /**
+     * Frees the launch slot once the browser is up (or failed to start).
+     *
+     * @param started false if the launch failed, which also frees the session slot
+     */
+    static void afterLaunch(boolean started) {
+        if (instance != null) {
+            instance.launched(started);
+        }
+    }
+
+    /**
+     * Frees the session slot of a browser that was quit.
+     */
+    static void sessionClosed() {
+        if (instance != null) {
+            instance.closed();
+        }
+    }
+
+    private void acquire() {
+        long start = System.nanoTime();
+        boolean waited = false;
+        boolean reclaimed = false;
+
+        lock.lock();
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                if (now - sampledAt >= sampleNanos) {
+                    resample(now);
+                }
+                if (live < limit && launching < maxLaunches) {
+                    break;
+                }
+
+                if (live >= limit && !reclaimed) {
+                    // Each queued launch frees at most one idle session; quitting happens outside the lock
+                    lock.unlock();
+                    try {
+                        reclaimed = DriverManager.reclaimIdleSession();
+                    } finally {
+                        lock.lock();
+                    }
+                    if (reclaimed) {
+                        continue;
+                    }
+                }
+
+                long remaining = maxWaitNanos - (now - start);
+                if (remaining <= 0) {
+                    overcommitted.increment();
+                    log.warn("Waited {} s for a browser slot ({} live, limit {}); launching over the limit",
+                            TimeUnit.NANOSECONDS.toSeconds(maxWaitNanos), live, limit);
+                    break;
+                }
+
+                if (!waited) {
+                    waited = true;
+                    queued.increment();
+                    log.debug("Thread '{}' queued for a browser slot ({} live, {} launching, limit {})",
+                            Thread.currentThread().getName(), live, launching, limit);
+                }
+                // Wake up at the next sample even if nothing is released, in case memory was freed
+                changed.awaitNanos(Math.min(remaining, Math.max(sampleNanos, TimeUnit.MILLISECONDS.toNanos(100))));
+            }
+
+            live++;
+            launching++;
+            peakLive.accumulate(live);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a browser slot", e);
+        } finally {
+            lock.unlock();
+        }
+
+        long waitedFor = System.nanoTime() - start;
+        launches.increment();
+        if (waited) {
+            waitedNanos.add(waitedFor);
+            maxWaitedNanos.accumulate(waitedFor);
+            long[] current = testWait.get();
+            current[0]++;
+            current[1] += waitedFor;
+        }
+    }
+
+    private void launched(boolean started) {
+        lock.lock();
+        try {
+            launching--;
+            if (!started) {
+                live--;
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closed() {
+        lock.lock();
+        try {
+            live = Math.max(0, live - 1);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ============================================================
+    // Limit computation
+    // ============================================================
+
+    /** Must be called with the lock held. */
+    private void resample(long now) {
+        sampledAt = now;
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        int byCpu = cores / coresPerSession;
+
+        int byMemory = Integer.MAX_VALUE;
+        long availableKb = memAvailableKb();
+        if (availableKb >= 0) {
+            updateRssEstimate();
+            // MemAvailable already excludes the running browsers, so headroom adds to them
+            long headroom = Math.max(0, availableKb - reserveKb);
+            byMemory = (int) Math.min(Integer.MAX_VALUE, live + headroom / Math.max(1, rssPerSessionKb));
+        }
+
+        int computed = Math.max(minSessions, Math.min(byCpu, byMemory));
+        if (maxSessions > 0) {
+            computed = Math.min(computed, maxSessions);
+        }
+
+        if (computed != limit) {
+            log.info("Browser limit {} -> {} (cores {}, MemAvailable {} MB, ~{} MB per browser, {} live)",
+                    limit, computed, cores, availableKb < 0 ? "n/a" : availableKb / 1024,
+                    rssPerSessionKb / 1024, live);
+            if (computed > limit) {
+                changed.signalAll();
+            }
+            limit = computed;
+        }
+        lowestLimit.accumulate(limit);
+        highestLimit.accumulate(limit);
+    }
+
+    /**
+     * Measures the resident memory of every process started by this JVM (drivers and the
+     * browser processes below them) and folds the per-session average into the estimate.
+     */
+    private void updateRssEstimate() {
+        if (live <= launching) {
+            // Browsers still starting up are not representative yet
+            return;
+        }
+
+        long totalKb = ProcessHandle.current().descendants()
+                .mapToLong(p -> statusField(Path.of("/proc", String.valueOf(p.pid()), "status"), "VmRSS:"))
+                .filter(kb -> kb > 0)
+                .sum();
+        if (totalKb > 0) {
+            long observed = totalKb / (live - launching);
+            rssPerSessionKb = (rssPerSessionKb * 3 + observed) / 4;
+        }
+    }
+
+    private static long memAvailableKb() {
+        return statusField(MEMINFO, "MemAvailable:");
+    }
+
+    /** Reads a "Name:   1234 kB" line from a /proc file, or -1 if unavailable. */
+    private static long statusField(Path file, String name) {
+        try {
+            List<String> lines = Files.readAllLines(file);
+            for (String line : lines) {
+                if (line.startsWith(name)) {
+                    return Long.parseLong(line.substring(name.length()).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | RuntimeException ignored) {
+            // Process exited in the meantime, or no procfs on this platform
+        }
+        return -1;
+    }
+
+    // ============================================================
+    // Reporting
+    // ============================================================
+
+    /**
+     * Returns how long the current thread queued behind the governor since the previous call
+     * and resets the counter.
+     */
+    public static String drainTestReport() {
+        long[] current = testWait.get();
+        String report = (instance == null)
+                ? "Concurrency governor is disabled"
+                : String.format("Queued %d time(s), %.1f ms in total%nCurrent limit: %s", current[0],
+                current[1] / 1_000_000.0, instance.state());
+        current[0] = 0;
+        current[1] = 0;
+        return report;
+    }
+
+    /**
+     * Returns queueing statistics and the range of the browser limit over the whole run.
+     */
+    public static String runSummary() {
+        if (instance == null) {
+            return "Concurrency governor is disabled";
+        }
+        return instance.summary();
+    }
+
+    private String state() {
+        lock.lock();
+        try {
+            return String.format("%d browser(s), %d live, ~%d MB per browser", limit, live, rssPerSessionKb / 1024);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String summary() {
+        long count = launches.sum();
+        long waits = queued.sum();
+        return String.format("  launches           %d%n"
+                        + "  queued launches    %d%n"
+                        + "  over-limit         %d%n"
+                        + "  total queue time   %.1f s%n"
+                        + "  mean queue time    %.1f ms%n"
+                        + "  max queue time     %.1f ms%n"
+                        + "  limit range        %d..%d%n"
+                        + "  peak live          %d%n",
+                count, waits, overcommitted.sum(), waitedNanos.sum() / 1e9,
+                waits == 0 ? 0.0 : waitedNanos.sum() / 1e6 / waits, maxWaitedNanos.get() / 1e6,
+                lowestLimit.get() == Long.MAX_VALUE ? 0 : lowestLimit.get(), highestLimit.get(), peakLive.get());
+    }
+}
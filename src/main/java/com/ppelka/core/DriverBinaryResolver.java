@@ -0,0 +1,178 @@
+package com.ppelka.core;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves driver binaries (chromedriver, geckodriver, msedgedriver) once per JVM and browser type.
+ *
+ * Resolution order:
+ *  1. Explicit binary path (driver.binary.chrome / driver.binary.firefox / driver.binary.edge)
+ *  2. Offline mode (driver.offline=true): local manifest only, never touching the network
+ *  3. WebDriverManager lookup, persisted to the local manifest for later offline runs
+ *
+ * The resolved path is exported through the standard Selenium system property
+ * (e.g. webdriver.chrome.driver), so driver services start without any further lookup.
+ *
+ * Configuration keys:
+ *  - driver.offline        -> "false"
+ *  - driver.manifest.path  -> "${user.home}/.cache/saucedemo-automation/driver-manifest.properties"
+ */
+final class DriverBinaryResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverBinaryResolver.class);
+
+    private static final Map<WebDriverFactory.BrowserType, String> resolved = new ConcurrentHashMap<>();
+
+    private DriverBinaryResolver() {
+        // Utility class; prevent instantiation
+    }
+
+    /**
+     * Returns the driver binary path for the given browser type, resolving it on first use only.
+     */
+    static String resolve(WebDriverFactory.BrowserType type) {
+        return resolved.computeIfAbsent(type, DriverBinaryResolver::resolveOnce);
+    }
+
+    // ============================================================
+    // Resolution
+    // ============================================================
+
+    private static String resolveOnce(WebDriverFactory.BrowserType type) {
+        String key = key(type);
+
+        String configured = ConfigReader.get("driver.binary." + key);
+        if (configured != null && !configured.isBlank()) {
+            log.info("Using configured {} driver binary: {}", key, configured);
+            return export(type, requireExecutable(configured, "driver.binary." + key));
+        }
+
+        if (ConfigReader.getBoolean("driver.offline", false)) {
+            Properties manifest = readManifest();
+            String path = manifest.getProperty(key + ".path");
+            if (path == null) {
+                throw new IllegalStateException("Offline mode is enabled but no " + key + " driver is recorded in "
+                        + manifestPath() + ". Run once online or set driver.binary." + key);
+            }
+            log.info("Offline mode: using {} driver {} from manifest", key, manifest.getProperty(key + ".version"));
+            return export(type, requireExecutable(path, manifestPath().toString()));
+        }
+
+        WebDriverManager wdm = manager(type);
+        wdm.setup();
+
+        String path = wdm.getDownloadedDriverPath();
+        String version = wdm.getDownloadedDriverVersion();
+        log.info("Resolved {} driver {} at {}", key, version, path);
+
+        if (path != null) {
+            record(key, path, version);
+            return export(type, path);
+        }
+
+        // WebDriverManager may have delegated to a driver already on the PATH
+        return "";
+    }
+
+    private static WebDriverManager manager(WebDriverFactory.BrowserType type) {
+        switch (type) {
+            case FIREFOX:
+                return WebDriverManager.firefoxdriver();
+            case EDGE:
+                return WebDriverManager.edgedriver();
+            case CHROME:
+            default:
+                return WebDriverManager.chromedriver();
+        }
+    }
+
+    private static String export(WebDriverFactory.BrowserType type, String path) {
+        System.setProperty(systemProperty(type), path);
+        return path;
+    }
+
+    private static String requireExecutable(String path, String source) {
+        if (!Files.isExecutable(Paths.get(path))) {
+            throw new IllegalStateException("Driver binary from " + source + " is missing or not executable: " + path);
+        }
+        return path;
+    }
+
+    private static String key(WebDriverFactory.BrowserType type) {
+        return type.name().toLowerCase();
+    }
+
+    private static String systemProperty(WebDriverFactory.BrowserType type) {
+        switch (type) {
+            case FIREFOX:
+                return "webdriver.gecko.driver";
+            case EDGE:
+                return "webdriver.edge.driver";
+            case CHROME:
+            default:
+                return "webdriver.chrome.driver";
+        }
+    }
+
+    // ============================================================
+    // Manifest
+    // ============================================================
+
+    private static Path manifestPath() {
+        String defaultPath = Paths.get(System.getProperty("user.home"),
+                ".cache", "saucedemo-automation", "driver-manifest.properties").toString();
+        return Paths.get(ConfigReader.get("driver.manifest.path", defaultPath));
+    }
+
+    private static synchronized Properties readManifest() {
+        Properties manifest = new Properties();
+        Path path = manifestPath();
+        if (Files.exists(path)) {
+            try (InputStream is = Files.newInputStream(path)) {
+                manifest.load(is);
+            } catch (IOException e) {
+                log.warn("Failed to read driver manifest {}: {}", path, e.getMessage());
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Re-reads the manifest and stores one entry, so that browser types resolved
+     * concurrently do not overwrite each other's entries.
+     */
+    private static synchronized void record(String key, String driverPath, String version) {
+        Properties manifest = readManifest();
+        manifest.setProperty(key + ".path", driverPath);
+        manifest.setProperty(key + ".version", String.valueOf(version));
+        manifest.setProperty(key + ".resolvedAt", Instant.now().toString());
+
+        Path path = manifestPath();
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+
+            // Write to a temporary file first so that concurrent JVMs never read a partial manifest
+            Path tmp = Files.createTempFile(path.toAbsolutePath().getParent(), "driver-manifest", ".tmp");
+            try (OutputStream os = Files.newOutputStream(tmp)) {
+                manifest.store(os, "Resolved WebDriver binaries");
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to write driver manifest {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -2,14 +2,42 @@ package com.ppelka.core;
 
 import org.openqa.selenium.WebDriver;
 
+import java.time.Duration;
+
 /**
  * Thread-safe WebDriver manager using ThreadLocal.
  * Ensures each test thread receives its own isolated WebDriver instance.
+ *
+ * Sessions are either created per test or leased from a warm per-thread
+ * {@link DriverPool} when {@code driver.pool.enabled=true}. New browsers can be
+ * launched ahead of time by a {@link DriverPrespawner} ({@code driver.prespawn.count > 0}).
+ * With {@code driver.contexts.enabled=true}, Chromium tests share browser processes and
+ * each receive an isolated {@link BrowserContexts browser context} instead.
+ * Every browser launch is admitted by the {@link ConcurrencyGovernor} when {@code governor.enabled=true}.
+ * Sessions are quit in the background by a {@link DriverReaper} when {@code driver.quit.async=true}.
  */
 public final class DriverManager {
 
     private static final ThreadLocal<WebDriver> driver = new ThreadLocal<>();
 
+    private static final DriverPool pool = ConfigReader.getBoolean("driver.pool.enabled", false)
+            ? new DriverPool(ConfigReader.getInt("driver.pool.max.uses", 25))
+            : null;
+
+    private static final BrowserContexts contexts = ConfigReader.getBoolean("driver.contexts.enabled", false)
+            ? new BrowserContexts(ConfigReader.getInt("driver.contexts.per.browser", 8))
+            : null;
+
+    private static final DriverPrespawner prespawner = ConfigReader.getInt("driver.prespawn.count", 0) > 0
+            ? new DriverPrespawner(ConfigReader.getInt("driver.prespawn.count", 0))
+            : null;
+
+    private static final DriverReaper reaper = ConfigReader.getBoolean("driver.quit.async", false)
+            ? new DriverReaper(ConfigReader.getInt("driver.reaper.threads", 2),
+                    ConfigReader.getInt("driver.reaper.queue", 16),
+                    ConfigReader.getInt("driver.reaper.timeout.seconds", 10))
+            : null;
+
     private DriverManager() {
         // Prevent instantiation
     }
@@ -26,11 +54,136 @@ public final class DriverManager {
         return driver.get() != null;
     }
 
+    /**
+     * Provides a ready-to-use driver for the current thread and registers it.
+     * Uses a warm pooled session when pooling is enabled.
+     */
+    public static WebDriver startDriver(String browserName) {
+        WebDriver instance;
+        if (contexts != null && BrowserContexts.supports(browserName)) {
+            instance = contexts.lease(browserName);
+        } else {
+            instance = (pool != null) ? pool.lease(browserName) : launch(browserName);
+        }
+        driver.set(instance);
+        return instance;
+    }
+
+    /**
+     * Releases the current thread's driver.
+     * Pooled sessions are reset and kept warm unless the test reported them unhealthy.
+     *
+     * @param healthy false when the test failed and the session should not be reused
+     */
+    public static void releaseDriver(boolean healthy) {
+        WebDriver instance = driver.get();
+        if (instance == null) {
+            return;
+        }
+
+        driver.remove();
+        if (BrowserContexts.isContextBound(instance)) {
+            // Disposes the context only; the shared browser keeps running
+            instance.quit();
+        } else if (pool != null) {
+            pool.release(instance, healthy);
+        } else {
+            dispose(instance);
+        }
+    }
+
+    /**
+     * Prepares the current thread's driver, kept bound by a test that is about to be retried,
+     * for the retry: extra windows, cookies and storage are cleared.
+     *
+     * @return the driver, or null if there is none or it could not be reset (it is then released)
+     */
+    public static WebDriver resetForRetry() {
+        WebDriver instance = driver.get();
+        if (instance == null) {
+            return null;
+        }
+
+        // Contexts are cheap to recreate, and a CDP cookie reset would reach into the shared browser
+        if (!BrowserContexts.isContextBound(instance) && DriverPool.reset(instance)) {
+            return instance;
+        }
+        releaseDriver(false);
+        return null;
+    }
+
+    /**
+     * Returns true if the driver is an isolated context of a browser process shared with other tests.
+     */
+    public static boolean isContextBound(WebDriver instance) {
+        return BrowserContexts.isContextBound(instance);
+    }
+
     public static void quitDriver() {
         WebDriver instance = driver.get();
         if (instance != null) {
-            instance.quit();
+            dispose(instance);
             driver.remove();
         }
     }
+
+    // ============================================================
+    // Session lifecycle (shared by all providers)
+    // ============================================================
+
+    /**
+     * Provides a newly started browser session, taking a pre-spawned one when available.
+     */
+    static WebDriver launch(String browserName) {
+        return (prespawner != null) ? prespawner.take(browserName) : launchNow(browserName);
+    }
+
+    /**
+     * Launches a brand-new browser session and applies one-time window and timeout settings,
+     * so that reused sessions do not pay for them again on every test.
+     */
+    static WebDriver launchNow(String browserName) {
+        ConcurrencyGovernor.beforeLaunch();
+        WebDriver instance = null;
+        try {
+            instance = WebDriverFactory.createDriver(browserName);
+            instance.manage().window().maximize();
+            instance.manage().timeouts().implicitlyWait(Duration.ofSeconds(0));
+            return instance;
+        } catch (RuntimeException e) {
+            if (instance != null) {
+                instance.quit();
+            }
+            instance = null;
+            throw e;
+        } finally {
+            ConcurrencyGovernor.afterLaunch(instance != null);
+        }
+    }
+
+    /**
+     * Quits one idle warm-pool session of any thread to free its browser slot.
+     *
+     * @return false if no idle session was available
+     */
+    static boolean reclaimIdleSession() {
+        return pool != null && pool.reclaimIdle();
+    }
+
+    /**
+     * Terminates a browser session that is no longer needed, in the background when async quit is enabled.
+     */
+    static void dispose(WebDriver instance) {
+        LeanNetwork.forget(instance);
+        if (reaper != null) {
+            reaper.reap(instance, ConcurrencyGovernor::sessionClosed);
+            return;
+        }
+
+        try {
+            instance.quit();
+        } finally {
+            ConcurrencyGovernor.sessionClosed();
+        }
+    }
 }
@@ -0,0 +1,219 @@
+package com.ppelka.core;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-thread pool of warm browser sessions.
+ *
+ * Each worker thread keeps at most one idle session per browser type.
+ * Between tests the session is reset (cookies, storage, extra windows, URL)
+ * instead of being quit, and only recycled after a configured number of
+ * uses or when a test reports it as unhealthy. Idle sessions still count against the
+ * {@link ConcurrencyGovernor}'s limit, so a thread queued behind it may reclaim (quit)
+ * the idle session of another thread; the owner then simply launches a new one.
+ *
+ * Configuration keys:
+ *  - driver.pool.enabled   -> "false"
+ *  - driver.pool.max.uses  -> "25"
+ */
+final class DriverPool {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverPool.class);
+
+    private static final String RESET_STORAGE_SCRIPT =
+            "try { window.localStorage.clear(); } catch (e) {}" +
+            "try { window.sessionStorage.clear(); } catch (e) {}";
+
+    private final int maxUses;
+
+    /** Idle sessions owned by the current thread, keyed by browser type. */
+    private final ThreadLocal<Map<WebDriverFactory.BrowserType, PooledSession>> idle =
+            ThreadLocal.withInitial(() -> new EnumMap<>(WebDriverFactory.BrowserType.class));
+
+    /** Every session created by the pool, so that a shutdown hook can quit leftovers. */
+    private final Set<PooledSession> all = ConcurrentHashMap.newKeySet();
+
+    /** Idle sessions of all threads, for reclaiming by threads waiting for a browser slot. */
+    private final Set<PooledSession> parked = ConcurrentHashMap.newKeySet();
+
+    /** Sessions currently leased to a test, keyed by driver identity. */
+    private final Map<WebDriver, PooledSession> leased = new ConcurrentHashMap<>();
+
+    DriverPool(int maxUses) {
+        this.maxUses = Math.max(1, maxUses);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "driver-pool-shutdown"));
+    }
+
+    // ============================================================
+    // Lease / release
+    // ============================================================
+
+    /**
+     * Leases a warm session of the requested browser type for the current thread,
+     * launching a new one only when no idle session is available.
+     */
+    WebDriver lease(String browserName) {
+        WebDriverFactory.BrowserType type = WebDriverFactory.BrowserType.from(browserName);
+        PooledSession session = idle.get().remove(type);
+        if (session != null && !session.unpark()) {
+            // Reclaimed by a thread that needed its browser slot
+            session = null;
+        }
+
+        if (session == null) {
+            log.info("No warm {} session for thread '{}', launching a new one", type, Thread.currentThread().getName());
+            session = new PooledSession(type, DriverManager.launch(browserName));
+            all.add(session);
+        } else {
+            log.debug("Reusing warm {} session (use {} of {})", type, session.uses + 1, maxUses);
+        }
+
+        session.uses++;
+        leased.put(session.driver, session);
+        return session.driver;
+    }
+
+    /**
+     * Returns a leased session to the pool.
+     *
+     * @param driver  driver previously obtained from {@link #lease(String)}
+     * @param healthy false when the test failed or the session is suspected broken
+     */
+    void release(WebDriver driver, boolean healthy) {
+        PooledSession session = leased.remove(driver);
+        if (session == null) {
+            // Not a pooled session; dispose it like any other driver
+            DriverManager.dispose(driver);
+            return;
+        }
+
+        if (!healthy || session.uses >= maxUses || !reset(session.driver)) {
+            log.info("Recycling {} session after {} use(s) (healthy={})", session.type, session.uses, healthy);
+            all.remove(session);
+            DriverManager.dispose(session.driver);
+            return;
+        }
+
+        session.park();
+        PooledSession previous = idle.get().put(session.type, session);
+        if (previous != null && previous.unpark()) {
+            // Only one idle session per browser type and thread is kept warm
+            all.remove(previous);
+            DriverManager.dispose(previous.driver);
+        }
+    }
+
+    /**
+     * Quits one idle session of any thread.
+     *
+     * @return false if no session was idle
+     */
+    boolean reclaimIdle() {
+        for (PooledSession session : parked) {
+            if (session.unpark()) {
+                log.info("Quitting idle {} session to free a browser slot", session.type);
+                all.remove(session);
+                DriverManager.dispose(session.driver);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ============================================================
+    // Session reset
+    // ============================================================
+
+    /**
+     * Brings a session back to a neutral state: single window, no cookies,
+     * empty local/session storage and a blank page.
+     *
+     * @return false if the session could not be reset and must be recycled
+     */
+    static boolean reset(WebDriver driver) {
+        try {
+            closeExtraWindows(driver);
+
+            ((JavascriptExecutor) driver).executeScript(RESET_STORAGE_SCRIPT);
+
+            if (driver instanceof HasCdp cdp) {
+                // Clears cookies of every origin, not only the current one
+                cdp.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+            } else {
+                driver.manage().deleteAllCookies();
+            }
+
+            driver.get("about:blank");
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to reset session, it will be recycled: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static void closeExtraWindows(WebDriver driver) {
+        Set<String> handles = driver.getWindowHandles();
+        if (handles.size() <= 1) {
+            return;
+        }
+
+        String keep = handles.iterator().next();
+        for (String handle : handles) {
+            if (!handle.equals(keep)) {
+                driver.switchTo().window(handle).close();
+            }
+        }
+        driver.switchTo().window(keep);
+    }
+
+    // ============================================================
+    // Shutdown
+    // ============================================================
+
+    private void shutdown() {
+        for (PooledSession session : all) {
+            try {
+                session.driver.quit();
+            } catch (Exception ignored) {
+                // Best effort during JVM shutdown
+            }
+        }
+        all.clear();
+    }
+
+    private final class PooledSession {
+        private final WebDriverFactory.BrowserType type;
+        private final WebDriver driver;
+        private final AtomicBoolean idle = new AtomicBoolean();
+        private int uses;
+
+        private PooledSession(WebDriverFactory.BrowserType type, WebDriver driver) {
+            this.type = type;
+            this.driver = driver;
+        }
+
+        private void park() {
+            idle.set(true);
+            parked.add(this);
+        }
+
+        /** Takes the session out of the idle set; only one caller (owner or reclaimer) wins. */
+        private boolean unpark() {
+            if (!idle.compareAndSet(true, false)) {
+                return false;
+            }
+            parked.remove(this);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.ppelka.core;
+
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Look-ahead browser launcher.
+ *
+ * Keeps {@code k} freshly launched sessions in flight per worker thread and browser type,
+ * so that a test mostly takes an already-started driver while the next one boots
+ * in the background during test execution. On JVM shutdown, sessions that were launched
+ * but never taken are quit, including launches that finish within a bounded wait.
+ *
+ * Configuration keys:
+ *  - driver.prespawn.count -> "0" (disabled)
+ */
+final class DriverPrespawner {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverPrespawner.class);
+
+    /** How long JVM shutdown waits, in total, for launches that are still in progress. */
+    private static final long SHUTDOWN_WAIT_SECONDS = 30;
+
+    private final int lookAhead;
+
+    private final ExecutorService launcher;
+
+    /** Launches queued for the current worker thread, keyed by browser type. */
+    private final ThreadLocal<Map<WebDriverFactory.BrowserType, Deque<CompletableFuture<WebDriver>>>> ready =
+            ThreadLocal.withInitial(() -> new EnumMap<>(WebDriverFactory.BrowserType.class));
+
+    /** Every launch not yet handed out, so that a shutdown hook can quit leftovers. */
+    private final Set<CompletableFuture<WebDriver>> pending = ConcurrentHashMap.newKeySet();
+
+    DriverPrespawner(int lookAhead) {
+        this.lookAhead = lookAhead;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.launcher = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "driver-prespawn-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "driver-prespawn-shutdown"));
+    }
+
+    /**
+     * Takes a started session for the current worker, launching synchronously only
+     * when nothing was queued, and immediately queues the replacement launch.
+     */
+    WebDriver take(String browserName) {
+        WebDriverFactory.BrowserType type = WebDriverFactory.BrowserType.from(browserName);
+        Deque<CompletableFuture<WebDriver>> queue = ready.get()
+                .computeIfAbsent(type, t -> new ArrayDeque<>());
+
+        CompletableFuture<WebDriver> next = queue.pollFirst();
+        refill(queue, browserName);
+
+        if (next == null) {
+            log.info("No pre-spawned {} session available, launching on the test thread", type);
+            return DriverManager.launchNow(browserName);
+        }
+
+        try {
+            WebDriver instance = next.join();
+            pending.remove(next);
+            return instance;
+        } catch (Exception e) {
+            pending.remove(next);
+            log.warn("Background {} launch failed, launching on the test thread: {}", type, e.getMessage());
+            return DriverManager.launchNow(browserName);
+        }
+    }
+
+    private void refill(Deque<CompletableFuture<WebDriver>> queue, String browserName) {
+        while (queue.size() < lookAhead) {
+            CompletableFuture<WebDriver> launch =
+                    CompletableFuture.supplyAsync(() -> DriverManager.launchNow(browserName), launcher);
+            pending.add(launch);
+            queue.addLast(launch);
+        }
+    }
+
+    // ============================================================
+    // Shutdown
+    // ============================================================
+
+    /**
+     * Quits every session that was launched but never handed out. Launches still in progress
+     * are allowed to finish, all within one bounded wait, so their browsers can be quit too.
+     */
+    private void shutdown() {
+        launcher.shutdown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_WAIT_SECONDS);
+
+        for (CompletableFuture<WebDriver> launch : pending) {
+            WebDriver instance;
+            try {
+                instance = launch.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                log.warn("Pre-spawned session still launching at JVM exit; its browser may be left running");
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException | CancellationException e) {
+                // The launch failed, so there is no browser to quit
+                continue;
+            }
+
+            try {
+                instance.quit();
+            } catch (Exception ignored) {
+                // Best effort during JVM shutdown
+            }
+        }
+        pending.clear();
+        launcher.shutdownNow();
+    }
+}
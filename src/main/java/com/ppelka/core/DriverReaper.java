@@ -0,0 +1,226 @@
+package com.ppelka.core;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Background quitting of browser sessions.
+ *
+ * A small bounded pool quits sessions handed over by {@link DriverManager#dispose(WebDriver)},
+ * so the test thread returns from teardown immediately. When the queue is full, or the pool
+ * is already shutting down, the caller quits synchronously; this bounds the number of zombie
+ * browsers during slow shutdowns and never drops a session.
+ *
+ * A quit that does not finish within the timeout is followed by a hard kill of the browser
+ * process tree and its driver process. The processes are located from the session
+ * capabilities: the user data directory for Chromium, {@code moz:processID} for Firefox.
+ * On JVM shutdown pending quits are drained, and whatever is left is killed.
+ *
+ * Configuration keys:
+ *  - driver.quit.async            -> "false"
+ *  - driver.reaper.threads        -> "2"
+ *  - driver.reaper.queue          -> "16"
+ *  - driver.reaper.timeout.seconds -> "10"
+ */
+final class DriverReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverReaper.class);
+
+    private final long timeoutSeconds;
+
+    private final ThreadPoolExecutor quitters;
+
+    private final ScheduledExecutorService killer;
+
+    DriverReaper(int threads, int queueSize, int timeoutSeconds) {
+        this.timeoutSeconds = Math.max(1, timeoutSeconds);
+
+        AtomicInteger counter = new AtomicInteger();
+        int size = Math.max(1, threads);
+        // Rejected quits run on the caller; unlike CallerRunsPolicy, also after shutdown instead of being dropped
+        this.quitters = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), r -> {
+                    Thread t = new Thread(r, "driver-reaper-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, (quit, executor) -> quit.run());
+
+        this.killer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "driver-reaper-killer");
+            t.setDaemon(true);
+            return t;
+        });
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::drain, "driver-reaper-shutdown"));
+    }
+
+    // ============================================================
+    // Quitting
+    // ============================================================
+
+    /**
+     * Queues the session for quitting and returns immediately, unless the queue is full or the
+     * reaper is draining, in which case the session is quit on the calling thread.
+     *
+     * @param onQuit runs after the session is gone, whether quit succeeded or the browser was killed
+     */
+    void reap(WebDriver driver, Runnable onQuit) {
+        Quit quit = new Quit(driver, onQuit);
+        if (quitters.isShutdown()) {
+            quit.run();
+            return;
+        }
+        // Rejected quits (full queue, or a shutdown since the check) run on this thread
+        quitters.execute(quit);
+    }
+
+    private final class Quit implements Runnable {
+
+        private final WebDriver driver;
+        private final Runnable onQuit;
+
+        private Quit(WebDriver driver, Runnable onQuit) {
+            this.driver = driver;
+            this.onQuit = onQuit;
+        }
+
+        @Override
+        public void run() {
+            // Resolve before quitting: the processes are gone (or hanging) afterwards
+            List<ProcessHandle> processes = processesOf(driver);
+            ScheduledFuture<?> deadline = deadline(processes);
+
+            long start = System.nanoTime();
+            try {
+                driver.quit();
+                log.debug("Session quit in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (Exception e) {
+                log.warn("Session quit failed: {}", e.getMessage());
+                kill(processes);
+            } finally {
+                if (deadline != null) {
+                    deadline.cancel(false);
+                }
+                onQuit.run();
+            }
+        }
+
+        /** Schedules the hard kill, or returns null once the killer is gone (quits during JVM exit). */
+        private ScheduledFuture<?> deadline(List<ProcessHandle> processes) {
+            try {
+                return killer.schedule(() -> {
+                    log.warn("Browser did not quit within {} s, killing {} process(es)", timeoutSeconds, processes.size());
+                    kill(processes);
+                }, timeoutSeconds, TimeUnit.SECONDS);
+            } catch (RejectedExecutionException e) {
+                return null;
+            }
+        }
+
+        /** Kills whatever is left without attempting a graceful quit. */
+        private void abandon() {
+            kill(processesOf(driver));
+            onQuit.run();
+        }
+    }
+
+    private void drain() {
+        quitters.shutdown();
+        try {
+            if (!quitters.awaitTermination(timeoutSeconds + 1, TimeUnit.SECONDS)) {
+                log.warn("Pending browser quits did not finish before JVM exit, killing the remaining browsers");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (Runnable pending : quitters.shutdownNow()) {
+            ((Quit) pending).abandon();
+        }
+        killer.shutdownNow();
+    }
+
+    // ============================================================
+    // Process lookup
+    // ============================================================
+
+    /**
+     * Returns the browser process tree of the session, rooted at its driver process when
+     * that is a child of this JVM, or an empty list if the processes cannot be identified.
+     */
+    private static List<ProcessHandle> processesOf(WebDriver driver) {
+        if (!(driver instanceof HasCapabilities hasCapabilities)) {
+            return List.of();
+        }
+
+        try {
+            Optional<ProcessHandle> browser = browserProcess(hasCapabilities.getCapabilities());
+            if (browser.isEmpty()) {
+                return List.of();
+            }
+
+            ProcessHandle root = browser.get().parent()
+                    .filter(parent -> parent.parent().map(ProcessHandle.current()::equals).orElse(false))
+                    .orElse(browser.get());
+
+            List<ProcessHandle> tree = new ArrayList<>(root.descendants().collect(Collectors.toList()));
+            tree.add(root);
+            return tree;
+        } catch (RuntimeException e) {
+            log.debug("Could not resolve browser processes: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    private static Optional<ProcessHandle> browserProcess(Capabilities caps) {
+        Object firefoxPid = caps.getCapability("moz:processID");
+        if (firefoxPid instanceof Number pid) {
+            return ProcessHandle.of(pid.longValue());
+        }
+
+        String userDataDir = userDataDir(caps.getCapability("chrome"));
+        if (userDataDir == null) {
+            userDataDir = userDataDir(caps.getCapability("msedge"));
+        }
+        if (userDataDir == null) {
+            return Optional.empty();
+        }
+
+        // The main browser process is the one carrying the profile flag without a --type
+        String flag = "--user-data-dir=" + userDataDir;
+        return ProcessHandle.current().descendants()
+                .filter(p -> p.info().commandLine()
+                        .map(cmd -> cmd.contains(flag) && !cmd.contains("--type="))
+                        .orElse(false))
+                .findFirst();
+    }
+
+    private static String userDataDir(Object vendorCapability) {
+        return (vendorCapability instanceof Map<?, ?> map && map.get("userDataDir") instanceof String dir)
+                ? dir
+                : null;
+    }
+
+    private static void kill(List<ProcessHandle> processes) {
+        for (ProcessHandle process : processes) {
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.ppelka.core;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.bidi.module.Network;
+import org.openqa.selenium.bidi.network.AddInterceptParameters;
+import org.openqa.selenium.bidi.network.BaseParameters;
+import org.openqa.selenium.bidi.network.ContinueResponseParameters;
+import org.openqa.selenium.bidi.network.Header;
+import org.openqa.selenium.bidi.network.InterceptPhase;
+import org.openqa.selenium.bidi.network.ProvideResponseParameters;
+import org.openqa.selenium.bidi.network.ResponseData;
+import org.openqa.selenium.bidi.network.UrlPattern;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * "Lean" page-load mode: blocks network resources that tests never assert on.
+ *
+ * Only blocked traffic pays for a round trip to the client; everything else loads untouched:
+ *  - Requests to blocked hosts (analytics, error reporting) are failed before they are sent
+ *    by a BiDi intercept that only matches those hostnames.
+ *  - Images and fonts are blocked by file extension. Chromium browsers block them in the
+ *    network stack (CDP Network.setBlockedURLs) and report each one as a BiDi fetch error,
+ *    which is how they are counted. Firefox does not load them at all (see WebDriverFactory),
+ *    so they are not counted there.
+ *  - lean.mime.fallback additionally intercepts every response of the application under test
+ *    and replaces blocked MIME types with an empty 204. It catches resources served without a
+ *    file extension, at the cost of one BiDi round trip per response, so it is off by default.
+ *
+ * Counters are kept per browsing context, so a test that runs in a shared browser
+ * (driver.contexts.enabled) only sees what its own window skipped.
+ *
+ * Configuration keys:
+ *  - lean.mode           -> "false"
+ *  - lean.block.types    -> "image,font"
+ *  - lean.block.hosts    -> "www.google-analytics.com,www.googletagmanager.com,submit.backtrace.io"
+ *  - lean.mime.fallback  -> "false"
+ */
+public final class LeanNetwork {
+
+    private static final Logger log = LoggerFactory.getLogger(LeanNetwork.class);
+
+    /** File extensions blocked for each lean.block.types entry. */
+    private static final Map<String, List<String>> EXTENSIONS = Map.of(
+            "image", List.of("png", "jpg", "jpeg", "gif", "webp", "avif", "svg", "ico", "bmp"),
+            "font", List.of("woff", "woff2", "ttf", "otf", "eot"));
+
+    private static final Map<WebDriver, Session> sessions = new ConcurrentHashMap<>();
+
+    private static final Stats totals = new Stats();
+
+    private LeanNetwork() {
+        // Utility class; prevent instantiation
+    }
+
+    public static boolean isEnabled() {
+        return ConfigReader.getBoolean("lean.mode", false);
+    }
+
+    // ============================================================
+    // Installation
+    // ============================================================
+
+    /**
+     * Registers the blocking rules on a freshly created BiDi-enabled session.
+     */
+    static void install(WebDriver driver) {
+        List<String> blockedTypes = blockedTypes();
+        List<String> blockedHosts = list(ConfigReader.get("lean.block.hosts",
+                "www.google-analytics.com,www.googletagmanager.com,submit.backtrace.io"));
+
+        Network network = new Network(driver);
+        Session session = new Session();
+        sessions.put(driver, session);
+
+        if (!blockedHosts.isEmpty()) {
+            String hostIntercept = network.addIntercept(new AddInterceptParameters(InterceptPhase.BEFORE_REQUEST_SENT)
+                    .urlPatterns(blockedHosts.stream()
+                            .map(host -> new UrlPattern().hostname(host))
+                            .collect(Collectors.toList())));
+
+            network.onBeforeRequestSent(event -> {
+                if (isOurs(event, hostIntercept)) {
+                    network.failRequest(event.getRequest().getRequestId());
+                    session.record(event.getBrowsingContextId(), "third-party", 0);
+                }
+            });
+        }
+
+        if (!blockedTypes.isEmpty() && blockUrls(driver)) {
+            // Not an intercept: the browser already dropped the request, this only counts it
+            network.onFetchError(event -> {
+                String category = categoryOf(event.getRequest().getUrl(), blockedTypes);
+                if (category != null && event.getErrorText() != null && event.getErrorText().contains("BLOCKED")) {
+                    session.record(event.getBrowsingContextId(), category, 0);
+                }
+            });
+        }
+
+        if (!blockedTypes.isEmpty() && ConfigReader.getBoolean("lean.mime.fallback", false)) {
+            installMimeFallback(network, session, blockedTypes);
+        }
+
+        log.info("Lean mode enabled: blocking types {} and hosts {}", blockedTypes, blockedHosts);
+    }
+
+    /**
+     * Blocks image and font URLs in the window the driver currently targets. Chromium applies
+     * the block list per page, so windows opened through CDP need their own call.
+     *
+     * @return false if the browser does not support CDP
+     */
+    static boolean blockUrls(WebDriver driver) {
+        if (!(driver instanceof HasCdp cdp)) {
+            return false;
+        }
+
+        List<String> patterns = new ArrayList<>();
+        for (String type : blockedTypes()) {
+            for (String extension : EXTENSIONS.getOrDefault(type, List.of())) {
+                patterns.add("*." + extension);
+                patterns.add("*." + extension + "?*");
+            }
+        }
+        if (patterns.isEmpty()) {
+            return false;
+        }
+
+        try {
+            cdp.executeCdpCommand("Network.enable", Map.of());
+            cdp.executeCdpCommand("Network.setBlockedURLs", Map.of("urls", patterns));
+            return true;
+        } catch (WebDriverException e) {
+            log.warn("Could not block image and font URLs: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Replaces responses of the application under test whose MIME type is blocked with an
+     * empty 204 as soon as their headers arrive. Skipped bytes are taken from Content-Length.
+     */
+    private static void installMimeFallback(Network network, Session session, List<String> blockedTypes) {
+        AddInterceptParameters params = new AddInterceptParameters(InterceptPhase.RESPONSE_STARTED);
+        String autHost = autHost();
+        if (autHost != null) {
+            params.urlPattern(new UrlPattern().hostname(autHost));
+        }
+        String responseIntercept = network.addIntercept(params);
+
+        network.onResponseStarted(event -> {
+            if (!isOurs(event, responseIntercept)) {
+                return;
+            }
+
+            String requestId = event.getRequest().getRequestId();
+            ResponseData response = event.getResponseData();
+            String category = blockedCategory(response.getMimeType(), blockedTypes);
+
+            if (category == null) {
+                network.continueResponse(new ContinueResponseParameters(requestId));
+            } else {
+                network.provideResponse(new ProvideResponseParameters(requestId).statusCode(204));
+                session.record(event.getBrowsingContextId(), category, contentLength(response));
+            }
+        });
+    }
+
+    // ============================================================
+    // Reporting
+    // ============================================================
+
+    /**
+     * Returns a text report of what was skipped by the given session since the previous call,
+     * followed by the totals for the whole run, and resets the session counters. A driver bound
+     * to a browser context only reports its own window.
+     */
+    public static String drainReport(WebDriver driver) {
+        Session session = sessions.get(unwrap(driver));
+        if (session == null) {
+            return "Lean mode is not active for this session";
+        }
+
+        String thisTest;
+        if (BrowserContexts.isContextBound(driver)) {
+            String window = windowOf(driver);
+            thisTest = (window == null)
+                    ? "  not available (the test's window is already closed)\n"
+                    : session.drainContext(window);
+        } else {
+            thisTest = session.drainAll();
+        }
+        return "This test:\n" + thisTest + "\nWhole run:\n" + totals.describe();
+    }
+
+    /**
+     * Stops tracking a session that is being quit. For a driver bound to a browser context
+     * only that context's counters are folded into the totals; the shared browser stays tracked.
+     */
+    static void forget(WebDriver driver) {
+        if (BrowserContexts.isContextBound(driver)) {
+            Session session = sessions.get(unwrap(driver));
+            String window = windowOf(driver);
+            if (session != null && window != null) {
+                session.drainContext(window);
+            }
+            return;
+        }
+
+        Session session = sessions.remove(unwrap(driver));
+        if (session != null) {
+            session.drainAll();
+        }
+    }
+
+    private static String windowOf(WebDriver driver) {
+        try {
+            // Window handles are the ids of top-level browsing contexts
+            return driver.getWindowHandle();
+        } catch (WebDriverException e) {
+            return null;
+        }
+    }
+
+    private static WebDriver unwrap(WebDriver driver) {
+        return (driver instanceof Decorated<?> decorated && decorated.getOriginal() instanceof WebDriver original)
+                ? original
+                : driver;
+    }
+
+    // ============================================================
+    // Helpers
+    // ============================================================
+
+    private static boolean isOurs(BaseParameters event, String interceptId) {
+        return event.isBlocked() && event.getIntercepts() != null && event.getIntercepts().contains(interceptId);
+    }
+
+    private static String categoryOf(String url, List<String> blockedTypes) {
+        if (url == null) {
+            return null;
+        }
+
+        String path = url.toLowerCase(Locale.ROOT);
+        int end = path.indexOf('?');
+        path = (end < 0) ? path : path.substring(0, end);
+
+        for (String type : blockedTypes) {
+            for (String extension : EXTENSIONS.getOrDefault(type, List.of())) {
+                if (path.endsWith("." + extension)) {
+                    return type;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String blockedCategory(String mimeType, List<String> blockedTypes) {
+        if (mimeType == null) {
+            return null;
+        }
+
+        String mime = mimeType.toLowerCase(Locale.ROOT);
+        for (String type : blockedTypes) {
+            // "font" also covers legacy application/font-woff and application/x-font-ttf
+            if (mime.startsWith(type + "/") || mime.startsWith("application/" + type)
+                    || mime.startsWith("application/x-" + type)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static long contentLength(ResponseData response) {
+        for (Header header : response.getHeaders()) {
+            if ("content-length".equalsIgnoreCase(header.getName())) {
+                try {
+                    return Long.parseLong(header.getValue().getValue().trim());
+                } catch (NumberFormatException ignored) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static String autHost() {
+        String baseUrl = ConfigReader.get("base.url");
+        try {
+            return (baseUrl == null) ? null : URI.create(baseUrl).getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static List<String> blockedTypes() {
+        return list(ConfigReader.get("lean.block.types", "image,font"));
+    }
+
+    private static List<String> list(String csv) {
+        return Arrays.stream(csv.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    // ============================================================
+    // Counters
+    // ============================================================
+
+    /** Counters of one browser session, split by top-level browsing context (window). */
+    private static final class Session {
+
+        private final Map<String, Stats> contexts = new ConcurrentHashMap<>();
+
+        private void record(String contextId, String category, long size) {
+            contexts.computeIfAbsent(contextId == null ? "" : contextId, c -> new Stats()).record(category, size);
+        }
+
+        private String drainContext(String contextId) {
+            Stats stats = contexts.remove(contextId);
+            return (stats == null) ? "  nothing skipped\n" : stats.drainInto(totals);
+        }
+
+        private String drainAll() {
+            Stats merged = new Stats();
+            for (String contextId : new ArrayList<>(contexts.keySet())) {
+                Stats stats = contexts.remove(contextId);
+                if (stats != null) {
+                    stats.drainInto(merged);
+                }
+            }
+            return merged.drainInto(totals);
+        }
+    }
+
+    private static final class Stats {
+
+        private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> bytes = new ConcurrentHashMap<>();
+
+        private void record(String category, long size) {
+            requests.computeIfAbsent(category, c -> new LongAdder()).increment();
+            bytes.computeIfAbsent(category, c -> new LongAdder()).add(size);
+        }
+
+        private String drainInto(Stats target) {
+            StringBuilder sb = new StringBuilder();
+            for (String category : requests.keySet()) {
+                long count = requests.get(category).sumThenReset();
+                long size = bytes.computeIfAbsent(category, c -> new LongAdder()).sumThenReset();
+                target.requests.computeIfAbsent(category, c -> new LongAdder()).add(count);
+                target.bytes.computeIfAbsent(category, c -> new LongAdder()).add(size);
+                sb.append(line(category, count, size));
+            }
+            return sb.length() == 0 ? "  nothing skipped\n" : sb.toString();
+        }
+
+        private String describe() {
+            StringBuilder sb = new StringBuilder();
+            requests.forEach((category, count) -> sb.append(line(category, count.sum(),
+                    bytes.computeIfAbsent(category, c -> new LongAdder()).sum())));
+            return sb.length() == 0 ? "  nothing skipped\n" : sb.toString();
+        }
+
+        private static String line(String category, long count, long size) {
+            return String.format("  %-12s %6d request(s) skipped, %10d bytes skipped%n", category, count, size);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.ppelka.core;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.Proxy;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
@@ -36,25 +37,71 @@ public final class WebDriverFactory {
 
         BrowserType type = BrowserType.from(browserName);
         boolean headless = ConfigReader.getBoolean("headless", false);
+        boolean lean = LeanNetwork.isEnabled();
+        PageLoadStrategy strategy = pageLoadStrategy();
+        Proxy proxy = proxy();
 
+        // Resolved once per JVM; later calls are a map lookup
+        DriverBinaryResolver.resolve(type);
+
+        WebDriver driver;
         switch (type) {
             case FIREFOX:
-                WebDriverManager.firefoxdriver().setup();
-                return firefox(headless);
+                driver = firefox(headless, lean, strategy, proxy);
+                break;
 
             case EDGE:
-                WebDriverManager.edgedriver().setup();
-                return edge(headless);
+                driver = edge(headless, lean, strategy, proxy);
+                break;
 
             case CHROME:
             default:
-                WebDriverManager.chromedriver().setup();
-                return chrome(headless);
+                driver = chrome(headless, lean, strategy, proxy);
+                break;
+        }
+
+        if (lean) {
+            LeanNetwork.install(driver);
+        }
+        return driver;
+    }
+
+    /**
+     * Resolves the page load strategy from the "page.load.strategy" key (normal, eager or none).
+     * With eager/none, navigation returns early and each page object's
+     * waitForPageToLoad() is the only readiness gate.
+     */
+    private static PageLoadStrategy pageLoadStrategy() {
+        String value = ConfigReader.get("page.load.strategy", "normal");
+        PageLoadStrategy strategy = PageLoadStrategy.fromString(value.toLowerCase());
+        if (strategy == null) {
+            System.err.println("Warning: unknown page.load.strategy '" + value + "'. Using default: normal");
+            return PageLoadStrategy.NORMAL;
         }
+        return strategy;
     }
 
-    private static WebDriver chrome(boolean headless) {
+    /**
+     * Builds the HTTP proxy from the "proxy.address" key (host:port), or returns null if unset.
+     * Only plain-HTTP traffic is routed through it; HTTPS connects directly.
+     */
+    private static Proxy proxy() {
+        String address = ConfigReader.get("proxy.address");
+        if (address == null || address.isBlank()) {
+            return null;
+        }
+
+        Proxy proxy = new Proxy();
+        proxy.setHttpProxy(address);
+        return proxy;
+    }
+
+    private static WebDriver chrome(boolean headless, boolean lean, PageLoadStrategy strategy, Proxy proxy) {
         ChromeOptions options = new ChromeOptions();
+        options.setPageLoadStrategy(strategy);
+        if (proxy != null) options.setProxy(proxy);
+        // BiDi is required for network interception in lean mode
+        if (lean) options.setCapability("webSocketUrl", true);
 
         if (headless) options.addArguments("--headless=new");
 
@@ -76,15 +123,26 @@ public final class WebDriverFactory {
         return new ChromeDriver(options);
     }
 
-    private static WebDriver firefox(boolean headless) {
+    private static WebDriver firefox(boolean headless, boolean lean, PageLoadStrategy strategy, Proxy proxy) {
         FirefoxOptions options = new FirefoxOptions();
+        options.setPageLoadStrategy(strategy);
+        if (proxy != null) options.setProxy(proxy);
+        if (lean) {
+            options.setCapability("webSocketUrl", true);
+            // Firefox has no URL block list; skip images and web fonts entirely instead
+            options.addPreference("permissions.default.image", 2);
+            options.addPreference("gfx.downloadable_fonts.enabled", false);
+        }
         if (headless) options.addArguments("--headless");
         options.addArguments("--width=1920", "--height=1080");
         return new FirefoxDriver(options);
     }
 
-    private static WebDriver edge(boolean headless) {
+    private static WebDriver edge(boolean headless, boolean lean, PageLoadStrategy strategy, Proxy proxy) {
         EdgeOptions options = new EdgeOptions();
+        options.setPageLoadStrategy(strategy);
+        if (proxy != null) options.setProxy(proxy);
+        if (lean) options.setCapability("webSocketUrl", true);
         if (headless) options.addArguments("--headless=new");
         options.addArguments("--disable-gpu", "--no-sandbox", "--disable-dev-shm-usage", "--window-size=1920,1080");
         return new EdgeDriver(options);
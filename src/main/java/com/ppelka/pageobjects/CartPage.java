@@ -1,6 +1,8 @@
 package com.ppelka.pageobjects;
 
 import com.ppelka.abstractcomponents.AbstractComponent;
+import com.ppelka.abstractcomponents.DomRow;
+import com.ppelka.abstractcomponents.PageIdentity;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
@@ -31,14 +33,8 @@ public class CartPage extends AbstractComponent {
     // ============================================================
 
     @Override
-    public boolean isAt() {
-        return driver.getCurrentUrl().contains("cart")
-                && !findAll(cartItem).isEmpty();
-    }
-
-    public void waitForPageToLoad() {
-        waitForUrlContains("cart");
-        waitForVisible(cartItem);
+    protected PageIdentity identity() {
+        return PageIdentity.of("cart", cartItem);
     }
 
     // ============================================================
@@ -46,17 +42,17 @@ public class CartPage extends AbstractComponent {
     // ============================================================
 
     public boolean isProductVisible(String name) {
-        return findAll(cartItem).stream()
-                .anyMatch(i -> i.findElement(itemName).getText().equalsIgnoreCase(name));
+        return snapshot(cartItem, itemName).stream()
+                .anyMatch(row -> row.text().equalsIgnoreCase(name));
     }
 
     public void removeProduct(String name) {
-        WebElement item = findAll(cartItem).stream()
-                .filter(i -> i.findElement(itemName).getText().equalsIgnoreCase(name))
+        DomRow item = snapshot(cartItem, itemName, removeButton).stream()
+                .filter(row -> row.text().equalsIgnoreCase(name))
                 .findFirst()
                 .orElseThrow(() -> new RuntimeException("Product not found in cart: " + name));
 
-        WebElement removeBtn = item.findElement(removeButton);
+        WebElement removeBtn = item.extra(removeButton);
 
         try {
             removeBtn.click();
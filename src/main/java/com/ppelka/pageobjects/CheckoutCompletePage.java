@@ -1,6 +1,7 @@
 package com.ppelka.pageobjects;
 
 import com.ppelka.abstractcomponents.AbstractComponent;
+import com.ppelka.abstractcomponents.PageIdentity;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 
@@ -27,13 +28,8 @@ public class CheckoutCompletePage extends AbstractComponent {
     // ============================================================
 
     @Override
-    public boolean isAt() {
-        return driver.getCurrentUrl().contains("checkout-complete")
-                && !findAll(completeHeader).isEmpty();
-    }
-
-    public void waitForPageToLoad() {
-        waitForVisible(completeHeader);
+    protected PageIdentity identity() {
+        return PageIdentity.of("checkout-complete", completeHeader);
     }
 
     // ============================================================
@@ -1,6 +1,7 @@
 package com.ppelka.pageobjects;
 
 import com.ppelka.abstractcomponents.AbstractComponent;
+import com.ppelka.abstractcomponents.PageIdentity;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 
@@ -30,13 +31,8 @@ public class CheckoutInformationPage extends AbstractComponent {
     // ============================================================
 
     @Override
-    public boolean isAt() {
-        return driver.getCurrentUrl().contains("checkout-step-one")
-                && !findAll(firstNameField).isEmpty();
-    }
-
-    public void waitForPageToLoad() {
-        waitForVisible(firstNameField);
+    protected PageIdentity identity() {
+        return PageIdentity.of("checkout-step-one", firstNameField);
     }
 
     // ============================================================
@@ -58,6 +54,18 @@ public class CheckoutInformationPage extends AbstractComponent {
         return this;
     }
 
+    /**
+     * Fills all customer fields in one pipelined batch.
+     */
+    public CheckoutInformationPage fillCustomerInfo(String firstName, String lastName, String postalCode) {
+        actions()
+                .type(firstNameField, firstName)
+                .type(lastNameField, lastName)
+                .type(postalCodeField, postalCode)
+                .perform();
+        return this;
+    }
+
     public CheckoutOverviewPage continueToOverview() {
         click(continueButton);
         CheckoutOverviewPage overviewPage = new CheckoutOverviewPage(driver);
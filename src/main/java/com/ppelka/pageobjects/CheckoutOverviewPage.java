@@ -1,6 +1,7 @@
 package com.ppelka.pageobjects;
 
 import com.ppelka.abstractcomponents.AbstractComponent;
+import com.ppelka.abstractcomponents.PageIdentity;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 
@@ -29,13 +30,8 @@ public class CheckoutOverviewPage extends AbstractComponent {
     // ============================================================
 
     @Override
-    public boolean isAt() {
-        return driver.getCurrentUrl().contains("checkout-step-two")
-                && !findAll(overviewItem).isEmpty();
-    }
-
-    public void waitForPageToLoad() {
-        waitForVisible(overviewItem);
+    protected PageIdentity identity() {
+        return PageIdentity.of("checkout-step-two", overviewItem);
     }
 
     // ============================================================
@@ -43,8 +39,8 @@ public class CheckoutOverviewPage extends AbstractComponent {
     // ============================================================
 
     public boolean isProductVisible(String name) {
-        return findAll(overviewItem).stream()
-                .anyMatch(i -> i.findElement(itemName).getText().equalsIgnoreCase(name));
+        return snapshot(overviewItem, itemName).stream()
+                .anyMatch(row -> row.text().equalsIgnoreCase(name));
     }
 
     public CheckoutCompletePage finishCheckout() {
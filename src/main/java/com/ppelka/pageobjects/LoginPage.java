@@ -1,9 +1,13 @@
 package com.ppelka.pageobjects;
 
 import com.ppelka.abstractcomponents.AbstractComponent;
+import com.ppelka.abstractcomponents.PageIdentity;
+import com.ppelka.core.ConfigReader;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 
+import java.net.URI;
+
 /**
  * Page Object representing the login page of SauceDemo.
  * Provides navigation, login actions, and page identity validation.
@@ -15,13 +19,12 @@ public class LoginPage extends AbstractComponent {
     // ============================================================
 
     private static final String DEFAULT_URL = "https://www.saucedemo.com/";
-    private final String BASE_URL = System.getProperty("base.url", DEFAULT_URL);
+    private final String BASE_URL = ConfigReader.get("base.url", DEFAULT_URL);
 
     private final By usernameField = By.id("user-name");
     private final By passwordField = By.id("password");
     private final By loginButton   = By.id("login-button");
     private final By loginError    = By.cssSelector("h3[data-test='error']");
-    private final By inventoryItem = By.cssSelector(".inventory_item");
 
     // ============================================================
     // Constructor
@@ -36,13 +39,9 @@ public class LoginPage extends AbstractComponent {
     // ============================================================
 
     @Override
-    public boolean isAt() {
-        return driver.getCurrentUrl().contains("saucedemo.com")
-                && findAll(usernameField).size() > 0;
-    }
-
-    public void waitForPageToLoad() {
-        waitForVisible(usernameField);
+    protected PageIdentity identity() {
+        // The login form lives at the application root, whichever host serves it
+        return PageIdentity.of(URI.create(BASE_URL).getHost(), usernameField);
     }
 
     // ============================================================
@@ -50,23 +49,28 @@ public class LoginPage extends AbstractComponent {
     // ============================================================
 
     public void goTo() {
-        driver.get(BASE_URL);
+        navigateTo(BASE_URL);
         waitForPageToLoad();
     }
 
     public ProductCatalog loginValid(String username, String password) {
-        type(usernameField, username);
-        type(passwordField, password);
-        click(loginButton);
-
-        waitForVisible(inventoryItem);
-        return new ProductCatalog(driver);
+        actions()
+                .type(usernameField, username)
+                .type(passwordField, password)
+                .click(loginButton)
+                .perform();
+
+        ProductCatalog catalog = new ProductCatalog(driver);
+        catalog.waitForPageToLoad();
+        return catalog;
     }
 
     public void loginInvalid(String username, String password) {
-        type(usernameField, username);
-        type(passwordField, password);
-        click(loginButton);
+        actions()
+                .type(usernameField, username)
+                .type(passwordField, password)
+                .click(loginButton)
+                .perform();
 
         waitForVisible(loginError);
     }
@@ -1,13 +1,31 @@
 package com.ppelka.pageobjects;
 
 import com.ppelka.abstractcomponents.AbstractComponent;
+import com.ppelka.abstractcomponents.ActionBatch;
+import com.ppelka.abstractcomponents.DomRow;
+import com.ppelka.abstractcomponents.PageIdentity;
 import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 /**
  * Page Object representing the product catalog (inventory) page.
  * Provides product lookup, add-to-cart actions, and navigation to the cart.
+ *
+ * Products are located through a name -> card index built once per page render;
+ * an in-page mutation counter tells whether the render is still current.
  */
 public class ProductCatalog extends AbstractComponent {
 
@@ -33,23 +51,116 @@ public class ProductCatalog extends AbstractComponent {
     // ============================================================
 
     @Override
-    public boolean isAt() {
-        return driver.getCurrentUrl().contains("inventory")
-                && !findAll(productCard).isEmpty();
+    protected PageIdentity identity() {
+        return PageIdentity.of("inventory", productCard);
+    }
+
+    // ============================================================
+    // Inventory index
+    // ============================================================
+
+    /**
+     * Builds the name -> card index in one call and installs an in-page mutation counter
+     * (once per document) that tells later calls whether the render they were built from is still current.
+     */
+    private static final String INDEX_SCRIPT =
+            "var state = window.__catalogIndex;" +
+            "if (!state) {" +
+            "  state = window.__catalogIndex = {version: 0};" +
+            "  state.observer = new MutationObserver(function () { state.version++; });" +
+            "  state.observer.observe(document.body, {subtree: true, childList: true});" +
+            "}" +
+            "if (state.observer.takeRecords().length) state.version++;" +
+            "var cards = document.querySelectorAll(arguments[0]), rows = [];" +
+            "for (var i = 0; i < cards.length; i++) {" +
+            "  var label = cards[i].querySelector(arguments[1]);" +
+            "  rows.push([label ? (label.innerText || label.textContent || '').trim() : '', cards[i]]);" +
+            "}" +
+            "return {version: state.version, rows: rows};";
+
+    /**
+     * Adds the given cards to the cart in one of three modes:
+     *  - "click":   clicks every add button in-page (interaction.fidelity=fast), then confirms
+     *  - "resolve": returns the add buttons so they can be clicked natively
+     *  - "confirm": waits in-page until every card shows a remove button
+     * "click" and "resolve" report "stale" without touching the page if the DOM changed since the index was built.
+     */
+    private static final String ADD_PRODUCTS_SCRIPT =
+            "var cards = arguments[0], names = arguments[1], expected = arguments[2], addSelector = arguments[3]," +
+            "    removeSelector = arguments[4], timeoutMs = arguments[5], mode = arguments[6]," +
+            "    done = arguments[arguments.length - 1];" +
+            "var state = window.__catalogIndex;" +
+            "function version() { if (state.observer.takeRecords().length) state.version++; return state.version; }" +
+            "if (mode !== 'confirm') {" +
+            "  if (!state || version() !== expected) { done({stale: true}); return; }" +
+            "  for (var i = 0; i < cards.length; i++) { if (!cards[i].isConnected) { done({stale: true}); return; } }" +
+            "  var missing = [], buttons = [];" +
+            "  for (var i = 0; i < cards.length; i++) {" +
+            "    var add = cards[i].querySelector(addSelector);" +
+            "    if (add) { buttons.push(add); } else { missing.push(names[i]); }" +
+            "  }" +
+            "  if (missing.length) { done({missing: missing, version: version()}); return; }" +
+            "  if (mode === 'resolve') { done({buttons: buttons, version: version()}); return; }" +
+            "  for (var i = 0; i < buttons.length; i++) buttons[i].click();" +
+            "}" +
+            "function pending() {" +
+            "  var result = [];" +
+            "  for (var i = 0; i < cards.length; i++) {" +
+            "    var remove = cards[i].querySelector(removeSelector);" +
+            "    if (!remove || !remove.getClientRects().length) result.push(names[i]);" +
+            "  }" +
+            "  return result;" +
+            "}" +
+            "var finished = false, observer, timer;" +
+            "function check(force) {" +
+            "  var left = pending();" +
+            "  if (finished || (left.length && !force)) return;" +
+            "  finished = true; if (observer) observer.disconnect(); clearTimeout(timer);" +
+            "  done({unconfirmed: left, version: version()});" +
+            "}" +
+            "check(false);" +
+            "if (!finished) {" +
+            "  observer = new MutationObserver(function () { check(false); });" +
+            "  observer.observe(document.body, {subtree: true, childList: true, attributes: true});" +
+            "  timer = setTimeout(function () { check(true); }, timeoutMs);" +
+            "}";
+
+    /** Product name (lower case) -> card container of the render the index was built from. */
+    private Map<String, WebElement> index = Map.of();
+
+    /** In-page mutation counter value the index corresponds to; -1 when no index exists. */
+    private long indexVersion = -1;
+
+    @SuppressWarnings("unchecked")
+    private Map<String, WebElement> index() {
+        if (indexVersion < 0) {
+            waitForPageToLoad();
+            Map<String, Object> result = (Map<String, Object>) runScript("buildIndex", productCard,
+                    INDEX_SCRIPT, css(productCard), css(productName));
+
+            Map<String, WebElement> cards = new HashMap<>();
+            for (Object row : (List<Object>) result.get("rows")) {
+                List<Object> entry = (List<Object>) row;
+                cards.putIfAbsent(String.valueOf(entry.get(0)).toLowerCase(Locale.ROOT), (WebElement) entry.get(1));
+            }
+            index = cards;
+            indexVersion = ((Number) result.get("version")).longValue();
+        }
+        return index;
     }
 
-    public void waitForPageToLoad() {
-        waitForVisible(productCard);
+    private void invalidateIndex() {
+        indexVersion = -1;
     }
 
     // ============================================================
     // Helpers
     // ============================================================
 
-    private WebElement getProductCard(String name) {
+    private DomRow getProductCard(String name) {
         waitForPageToLoad();
-        return findAll(productCard).stream()
-                .filter(card -> card.findElement(productName).getText().equalsIgnoreCase(name))
+        return snapshot(productCard, productName, addToCartButton, removeButton).stream()
+                .filter(card -> card.text().equalsIgnoreCase(name))
                 .findFirst()
                 .orElseThrow(() -> new RuntimeException("Product not found: " + name));
     }
@@ -59,22 +170,102 @@ public class ProductCatalog extends AbstractComponent {
     // ============================================================
 
     public void addProduct(String name) {
-        WebElement card = getProductCard(name);
-        WebElement addBtn = card.findElement(addToCartButton);
-
-        try {
-            addBtn.click();
-        } catch (Exception e) {
-            // fallback to JS click if intercepted
-            jsClick(addBtn);
+        addProducts(List.of(name));
+    }
+
+    /**
+     * Adds every given product to the cart while the inventory index is current and confirms all
+     * remove buttons in-page. The index is rebuilt once if the page was re-rendered.
+     *
+     * The add buttons are clicked with native clicks through {@link #actions()}; only with
+     * interaction.fidelity=fast are they clicked in-page, in the same round trip as the confirmation.
+     */
+    @SuppressWarnings("unchecked")
+    public void addProducts(Collection<String> names) {
+        List<String> products = List.copyOf(names);
+        if (products.isEmpty()) {
+            return;
         }
 
-        waitForVisible(card.findElement(removeButton));
+        boolean fast = ActionBatch.isFastFidelity();
+        for (int attempt = 1; ; attempt++) {
+            boolean retry = attempt == 1;
+            Map<String, WebElement> cards = index();
+
+            List<WebElement> containers = new ArrayList<>();
+            for (String name : products) {
+                WebElement card = cards.get(name.toLowerCase(Locale.ROOT));
+                if (card == null) {
+                    if (retry) {
+                        break;
+                    }
+                    throw new RuntimeException("Product not found: " + name);
+                }
+                containers.add(card);
+            }
+
+            Map<String, Object> result = null;
+            if (containers.size() == products.size()) {
+                try {
+                    result = addProductsScript(containers, products, fast ? "click" : "resolve");
+                } catch (StaleElementReferenceException e) {
+                    result = Map.of("stale", true);
+                }
+            }
+
+            if (result == null || Boolean.TRUE.equals(result.get("stale"))) {
+                invalidateIndex();
+                if (retry) {
+                    continue;
+                }
+                throw new RuntimeException("Product catalog kept re-rendering while adding: " + products);
+            }
+
+            List<String> missing = (List<String>) result.get("missing");
+            if (missing != null) {
+                indexVersion = ((Number) result.get("version")).longValue();
+                throw new RuntimeException("Add to cart button not found for product(s): " + missing);
+            }
+
+            if (!fast) {
+                ActionBatch clicks = actions();
+                ((List<WebElement>) result.get("buttons")).forEach(clicks::click);
+                clicks.perform();
+                result = addProductsScript(containers, products, "confirm");
+            }
+
+            // Our own clicks changed the DOM; the cards are still valid at the returned version
+            indexVersion = ((Number) result.get("version")).longValue();
+
+            List<String> unconfirmed = (List<String>) result.get("unconfirmed");
+            if (!unconfirmed.isEmpty()) {
+                throw new TimeoutException("Remove button did not appear for product(s): " + unconfirmed);
+            }
+            return;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> addProductsScript(List<WebElement> containers, List<String> products, String mode) {
+        return (Map<String, Object>) runAsyncScript("addProducts", products, ADD_PRODUCTS_SCRIPT,
+                containers, products, indexVersion, css(addToCartButton), css(removeButton),
+                waitTimeout().toMillis(), mode);
+    }
+
+    /**
+     * Returns the names of all products that currently show a remove button (one snapshot).
+     */
+    public Set<String> getAddedProducts() {
+        waitForPageToLoad();
+        return snapshot(productCard, productName, removeButton).stream()
+                .filter(card -> card.extra(removeButton) != null)
+                .map(DomRow::text)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
     public boolean isRemoveButtonVisible(String name) {
-        WebElement card = getProductCard(name);
-        return card.findElement(removeButton).isDisplayed();
+        WebElement removeBtn = getProductCard(name).extra(removeButton);
+        return removeBtn != null && removeBtn.isDisplayed();
     }
 
     public String getCartQuantity() {
@@ -0,0 +1,129 @@
+package com.ppelka.pageobjects;
+
+import com.ppelka.abstractcomponents.PageIdentity;
+import com.ppelka.core.BrowserState;
+import com.ppelka.core.ConfigReader;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Authenticated session cache keyed by (user, worker thread).
+ *
+ * The first valid login of a user on a worker goes through the login form; the resulting
+ * cookies and storage are captured and restored into later tests' drivers on the same
+ * worker instead of logging in again. Entries expire after a TTL. Right after a restore one
+ * script checks that the {@code session-username} cookie survived and the browser was not sent
+ * back to the login page; an entry that fails the check (or never reaches the product catalog)
+ * is dropped and replaced by a fresh login at once.
+ *
+ * Configuration keys:
+ *  - session.cache.enabled      -> "false"
+ *  - session.cache.ttl.seconds  -> "600"
+ */
+public class SessionCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionCache.class);
+
+    /** True if the session cookie is set and the current URL (arguments[0]: login page) is not the login form. */
+    private static final String SESSION_CHECK_SCRIPT =
+            "var cookies = document.cookie.split('; ');" +
+            "for (var i = 0; i < cookies.length; i++) {" +
+            "  if (cookies[i].indexOf('session-username=') === 0)" +
+            "    return window.location.href.split(/[?#]/)[0] !== arguments[0];" +
+            "}" +
+            "return false;";
+
+    private static final Map<String, BrowserState> sessions = new ConcurrentHashMap<>();
+
+    private final WebDriver driver;
+
+    public SessionCache(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    public static boolean isEnabled() {
+        return ConfigReader.getBoolean("session.cache.enabled", false);
+    }
+
+    // ============================================================
+    // Login
+    // ============================================================
+
+    /**
+     * Returns the product catalog of a logged-in session for the given user,
+     * restored from the cache when possible.
+     */
+    public ProductCatalog loginValid(LoginPage loginPage, String username, String password) {
+        String key = key(username);
+        BrowserState cached = sessions.get(key);
+
+        if (cached != null && isExpired(cached)) {
+            log.debug("Cached session of {} expired", key);
+            sessions.remove(key, cached);
+        } else if (cached != null) {
+            ProductCatalog catalog = restore(cached);
+            if (catalog != null) {
+                log.info("Restored cached session of {}", key);
+                return catalog;
+            }
+            log.warn("Cached session of {} is stale; logging in again", key);
+            sessions.remove(key, cached);
+            loginPage.goTo();
+        }
+
+        ProductCatalog catalog = loginPage.loginValid(username, password);
+        sessions.put(key, BrowserState.capture(driver));
+        return catalog;
+    }
+
+    /**
+     * Drops every cached session of the given user on all workers.
+     */
+    public static void invalidate(String username) {
+        sessions.keySet().removeIf(key -> key.startsWith(username + "@"));
+    }
+
+    // ============================================================
+    // Helpers
+    // ============================================================
+
+    private ProductCatalog restore(BrowserState state) {
+        state.restore(driver);
+
+        PageIdentity.navigated(driver);
+        URI loginUrl = URI.create(state.origin() + "/");
+        driver.get(loginUrl.resolve("inventory.html").toString());
+
+        // An expired cookie is dropped by the browser, and a rejected session is sent back to the login form
+        Object loggedIn = ((JavascriptExecutor) driver).executeScript(SESSION_CHECK_SCRIPT, loginUrl.toString());
+        if (!Boolean.TRUE.equals(loggedIn)) {
+            return null;
+        }
+
+        ProductCatalog catalog = new ProductCatalog(driver);
+        try {
+            catalog.waitForPageToLoad();
+            return catalog;
+        } catch (TimeoutException e) {
+            return null;
+        }
+    }
+
+    private static boolean isExpired(BrowserState state) {
+        Duration ttl = Duration.ofSeconds(ConfigReader.getInt("session.cache.ttl.seconds", 600));
+        return state.capturedAt().plus(ttl).isBefore(Instant.now());
+    }
+
+    private static String key(String username) {
+        return username + "@" + Thread.currentThread().getName();
+    }
+}
@@ -0,0 +1,122 @@
+package com.ppelka.pageobjects;
+
+import com.ppelka.abstractcomponents.AbstractComponent;
+import com.ppelka.abstractcomponents.PageIdentity;
+import com.ppelka.core.ConfigReader;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes SauceDemo's client-side state directly instead of clicking through the UI.
+ *
+ * SauceDemo keeps the logged-in user in the "session-username" cookie and the cart
+ * as a JSON array of product ids in localStorage ("cart-contents"). Seeding both and
+ * opening the target page skips the login form and every add-to-cart click:
+ *
+ *   CartPage cart = SessionSeeder.asUser(driver, "standard_user")
+ *           .withCart("Sauce Labs Backpack", "Sauce Labs Bike Light")
+ *           .openCart();
+ *
+ * The password is never checked by the application once the cookie exists, so it is not needed.
+ */
+public class SessionSeeder {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionSeeder.class);
+
+    /** Product name (lower case) -> inventory id used by SauceDemo's cart storage. */
+    private static final Map<String, Integer> PRODUCT_IDS = Map.of(
+            "sauce labs backpack", 4,
+            "sauce labs bike light", 0,
+            "sauce labs bolt t-shirt", 1,
+            "sauce labs fleece jacket", 5,
+            "sauce labs onesie", 2,
+            "test.allthethings() t-shirt (red)", 3
+    );
+
+    private static final String SEED_SCRIPT =
+            "if (window.location.origin !== arguments[0]) return false;" +
+            "document.cookie = 'session-username=' + encodeURIComponent(arguments[1]) + '; path=/';" +
+            "if (arguments[2].length) { localStorage.setItem('cart-contents', JSON.stringify(arguments[2])); }" +
+            "else { localStorage.removeItem('cart-contents'); }" +
+            "return true;";
+
+    private final WebDriver driver;
+    private final String username;
+    private final List<Integer> cart = new ArrayList<>();
+    private final URI baseUrl = URI.create(ConfigReader.get("base.url", "https://www.saucedemo.com/"));
+
+    private SessionSeeder(WebDriver driver, String username) {
+        this.driver = driver;
+        this.username = username;
+    }
+
+    public static SessionSeeder asUser(WebDriver driver, String username) {
+        return new SessionSeeder(driver, username);
+    }
+
+    // ============================================================
+    // State
+    // ============================================================
+
+    public SessionSeeder withCart(String... productNames) {
+        for (String name : productNames) {
+            Integer id = PRODUCT_IDS.get(name.toLowerCase(Locale.ROOT));
+            if (id == null) {
+                throw new RuntimeException("Product not found: " + name);
+            }
+            cart.add(id);
+        }
+        return this;
+    }
+
+    // ============================================================
+    // Landing pages
+    // ============================================================
+
+    public ProductCatalog openCatalog() {
+        ProductCatalog catalog = new ProductCatalog(driver);
+        land("inventory.html", catalog);
+        return catalog;
+    }
+
+    public CartPage openCart() {
+        CartPage cartPage = new CartPage(driver);
+        land("cart.html", cartPage);
+        return cartPage;
+    }
+
+    public CheckoutInformationPage openCheckoutInformation() {
+        CheckoutInformationPage infoPage = new CheckoutInformationPage(driver);
+        land("checkout-step-one.html", infoPage);
+        return infoPage;
+    }
+
+    // ============================================================
+    // Helpers
+    // ============================================================
+
+    private void land(String path, AbstractComponent page) {
+        log.info("Seeding session for {} with cart {} and opening {}", username, cart, path);
+
+        String origin = baseUrl.getScheme() + "://" + baseUrl.getAuthority();
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+
+        // Cookies and storage can only be written from a document of the application's origin
+        if (!Boolean.TRUE.equals(js.executeScript(SEED_SCRIPT, origin, username, cart))) {
+            driver.get(baseUrl.toString());
+            js.executeScript(SEED_SCRIPT, origin, username, cart);
+        }
+
+        PageIdentity.navigated(driver);
+        driver.get(baseUrl.resolve(path).toString());
+        page.waitForPageToLoad();
+    }
+}
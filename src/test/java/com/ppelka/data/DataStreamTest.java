@@ -0,0 +1,187 @@
+package com.ppelka.data;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Browser-free checks of the streamed data providers: CSV and JSONL parsing in
+ * {@link LineSource} and the read-ahead limit of {@link RowWindow}.
+ */
+public class DataStreamTest {
+
+    // ============================================================
+    // CSV
+    // ============================================================
+
+    @Test(groups = {"framework"})
+    public void quotedFieldsKeepCommasAndEscapedQuotes() throws IOException {
+        List<Object[]> rows = read(LineSource.Format.CSV,
+                "name,quote\n\"Doe, Jane\",\"She said \"\"hi\"\"\"\n", "name", "quote");
+
+        Assert.assertEquals(rows.size(), 1);
+        Assert.assertEquals(rows.get(0), new Object[]{"Doe, Jane", "She said \"hi\""});
+    }
+
+    @Test(groups = {"framework"})
+    public void quotedFieldsMaySpanLines() throws IOException {
+        List<Object[]> rows = read(LineSource.Format.CSV,
+                "street,city\n\"12 Main St\nFlat 3\",Gdynia\nShort St,Sopot\n", "street", "city");
+
+        Assert.assertEquals(rows.size(), 2);
+        Assert.assertEquals(rows.get(0), new Object[]{"12 Main St\nFlat 3", "Gdynia"});
+        Assert.assertEquals(rows.get(1), new Object[]{"Short St", "Sopot"});
+    }
+
+    @Test(groups = {"framework"})
+    public void byteOrderMarkAndBlankLinesAreIgnored() throws IOException {
+        List<Object[]> rows = read(LineSource.Format.CSV,
+                "\uFEFFfirstName,lastName\n\nAnna,Nowak\n\n", "firstName", "lastName");
+
+        Assert.assertEquals(rows.size(), 1);
+        Assert.assertEquals(rows.get(0), new Object[]{"Anna", "Nowak"});
+    }
+
+    @Test(groups = {"framework"})
+    public void columnsAreSelectedByName() throws IOException {
+        List<Object[]> rows = read(LineSource.Format.CSV, "a,b,c\n1,2,3\n", "c", "a");
+
+        Assert.assertEquals(rows.get(0), new Object[]{"3", "1"});
+    }
+
+    @Test(groups = {"framework"})
+    public void missingColumnInHeaderIsRejected() throws IOException {
+        IllegalArgumentException e = Assert.expectThrows(IllegalArgumentException.class,
+                () -> read(LineSource.Format.CSV, "firstName,lastName\nAnna,Nowak\n", "postalCode"));
+
+        Assert.assertTrue(e.getMessage().contains("no column 'postalCode'"), e.getMessage());
+    }
+
+    @Test(groups = {"framework"})
+    public void missingValueReportsItsLine() throws IOException {
+        IllegalArgumentException e = Assert.expectThrows(IllegalArgumentException.class,
+                () -> read(LineSource.Format.CSV, "a,b\n1,2\n3\n", "a", "b"));
+
+        Assert.assertTrue(e.getMessage().contains(":3: missing value for column 'b'"), e.getMessage());
+    }
+
+    @Test(groups = {"framework"})
+    public void unterminatedQuoteIsRejected() throws IOException {
+        IllegalArgumentException e = Assert.expectThrows(IllegalArgumentException.class,
+                () -> read(LineSource.Format.CSV, "a,b\n\"open,2\n3,4\n", "a", "b"));
+
+        Assert.assertTrue(e.getMessage().contains(":2: unterminated quoted field"), e.getMessage());
+    }
+
+    // ============================================================
+    // JSONL
+    // ============================================================
+
+    @Test(groups = {"framework"})
+    public void jsonLinesAreSelectedByColumn() throws IOException {
+        List<Object[]> rows = read(LineSource.Format.JSONL,
+                "{\"firstName\": \"Anna\", \"postalCode\": \"81-001\", \"age\": 30}\n\n"
+                        + "{\"postalCode\": \"80-002\", \"firstName\": \"Jan\"}\n",
+                "firstName", "postalCode");
+
+        Assert.assertEquals(rows.size(), 2);
+        Assert.assertEquals(rows.get(0), new Object[]{"Anna", "81-001"});
+        Assert.assertEquals(rows.get(1), new Object[]{"Jan", "80-002"});
+    }
+
+    @Test(groups = {"framework"})
+    public void jsonLineWithoutColumnIsRejected() throws IOException {
+        IllegalArgumentException e = Assert.expectThrows(IllegalArgumentException.class,
+                () -> read(LineSource.Format.JSONL, "{\"firstName\": \"Anna\"}\n", "firstName", "postalCode"));
+
+        Assert.assertTrue(e.getMessage().contains(":1: missing value for column 'postalCode'"), e.getMessage());
+    }
+
+    // ============================================================
+    // RowWindow
+    // ============================================================
+
+    @Test(groups = {"framework"}, timeOut = 10_000)
+    public void windowNeverReadsAheadOfFinishedRows() throws InterruptedException {
+        int window = 3;
+        AtomicInteger pulled = new AtomicInteger();
+        Iterator<Object[]> source = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return pulled.get() < 10;
+            }
+
+            @Override
+            public Object[] next() {
+                return new Object[]{pulled.incrementAndGet()};
+            }
+        };
+
+        RowWindow rows = new RowWindow(source, window);
+        AtomicInteger handedOut = new AtomicInteger();
+        Thread consumer = new Thread(() -> {
+            while (rows.hasNext()) {
+                rows.next();
+                handedOut.incrementAndGet();
+            }
+        }, "row-window-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+
+        try {
+            awaitBlocked(consumer);
+            Assert.assertEquals(handedOut.get(), window, "Rows handed out with a full window");
+            Assert.assertEquals(pulled.get(), window, "Rows read from the source with a full window");
+
+            rows.rowFinished();
+            awaitCount(handedOut, window + 1);
+            awaitBlocked(consumer);
+            Assert.assertEquals(pulled.get(), window + 1, "One finished row must free exactly one read");
+        } finally {
+            for (int i = 0; i < 10; i++) {
+                rows.rowFinished();
+            }
+            consumer.join(5_000);
+        }
+        Assert.assertEquals(handedOut.get(), 10);
+    }
+
+    // ============================================================
+    // Helpers
+    // ============================================================
+
+    private static List<Object[]> read(LineSource.Format format, String content, String... columns)
+            throws IOException {
+        Path file = Files.createTempFile("rows", format == LineSource.Format.CSV ? ".csv" : ".jsonl");
+        try {
+            Files.writeString(file, content, StandardCharsets.UTF_8);
+            List<Object[]> rows = new ArrayList<>();
+            try (LineSource source = new LineSource(file.toString(), format, columns)) {
+                source.forEachRemaining(rows::add);
+            }
+            return rows;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void awaitBlocked(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void awaitCount(AtomicInteger count, int expected) throws InterruptedException {
+        while (count.get() < expected) {
+            Thread.sleep(5);
+        }
+    }
+}
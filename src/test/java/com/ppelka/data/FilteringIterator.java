@@ -0,0 +1,41 @@
+package com.ppelka.data;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Lazily drops the rows of a data provider that the predicate rejects.
+ */
+final class FilteringIterator implements Iterator<Object[]> {
+
+    private final Iterator<Object[]> source;
+    private final Predicate<Object[]> accept;
+    private Object[] next;
+
+    FilteringIterator(Iterator<Object[]> source, Predicate<Object[]> accept) {
+        this.source = source;
+        this.accept = accept;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && source.hasNext()) {
+            Object[] candidate = source.next();
+            if (accept.test(candidate)) {
+                next = candidate;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Object[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Object[] row = next;
+        next = null;
+        return row;
+    }
+}
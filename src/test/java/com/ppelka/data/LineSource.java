@@ -0,0 +1,254 @@
+package com.ppelka.data;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads a data file one record at a time and turns each record into a row of the requested columns.
+ *
+ * Only the current record is held in memory. The file is closed when the last record has been read.
+ * Blank lines are ignored. A CSV record is one line, unless a quoted field contains line breaks;
+ * then it continues on the following lines until the quote is closed.
+ */
+final class LineSource implements Iterator<Object[]>, Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Json JSON = new Json();
+
+    enum Format {
+        /** Comma-separated values with a header line; quoted fields may contain commas, "" escapes and line breaks. */
+        CSV,
+        /** One JSON object per line. */
+        JSONL
+    }
+
+    private final String location;
+    private final Format format;
+    private final BufferedReader reader;
+    private String[] columns;
+    private int[] indexes;
+    private Object[] next;
+    private long lineNumber;
+    private long recordLine;
+    private boolean closed;
+
+    LineSource(String location, Format format, String... columns) {
+        this.location = location;
+        this.format = format;
+        this.reader = open(location);
+        this.columns = columns;
+
+        if (format == Format.CSV) {
+            readHeader();
+        }
+    }
+
+    // ============================================================
+    // Iterator
+    // ============================================================
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && !closed) {
+            String line = readRecord();
+            if (line == null) {
+                close();
+            } else if (!line.isBlank()) {
+                next = parse(line);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Object[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Object[] row = next;
+        next = null;
+        return row;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close data file " + location, e);
+        }
+    }
+
+    // ============================================================
+    // Parsing
+    // ============================================================
+
+    private void readHeader() {
+        String header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("Data file " + location + " has no header line");
+        }
+        // Spreadsheet exports often start with a byte order mark
+        List<String> names = csvFields(header.startsWith("\uFEFF") ? header.substring(1) : header);
+
+        if (columns.length == 0) {
+            columns = names.toArray(new String[0]);
+        }
+        indexes = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            indexes[i] = names.indexOf(columns[i]);
+            if (indexes[i] < 0) {
+                throw new IllegalArgumentException("Data file " + location + " has no column '" + columns[i]
+                        + "'; columns: " + names);
+            }
+        }
+    }
+
+    private Object[] parse(String line) {
+        try {
+            return (format == Format.CSV) ? csvRow(line) : jsonRow(line);
+        } catch (IllegalArgumentException | JsonException e) {
+            throw new IllegalArgumentException(location + ":" + recordLine + ": " + e.getMessage(), e);
+        }
+    }
+
+    private Object[] csvRow(String line) {
+        List<String> fields = csvFields(line);
+        Object[] row = new Object[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            if (indexes[i] >= fields.size()) {
+                throw new IllegalArgumentException("missing value for column '" + columns[i] + "'");
+            }
+            row[i] = fields.get(indexes[i]);
+        }
+        return row;
+    }
+
+    private Object[] jsonRow(String line) {
+        Map<String, Object> object = JSON.toType(line, Json.MAP_TYPE);
+        if (columns.length == 0) {
+            return object.values().toArray();
+        }
+
+        Object[] row = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            if (!object.containsKey(columns[i])) {
+                throw new IllegalArgumentException("missing value for column '" + columns[i] + "'");
+            }
+            row[i] = object.get(columns[i]);
+        }
+        return row;
+    }
+
+    private static List<String> csvFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // ============================================================
+    // I/O
+    // ============================================================
+
+    /**
+     * Reads the next record: one line, or for CSV as many lines as it takes to close an open
+     * quoted field. Escaped quotes ("") come in pairs, so an odd quote count means it is still open.
+     */
+    private String readRecord() {
+        String line = readLine();
+        recordLine = lineNumber;
+        if (line == null || format != Format.CSV || quotes(line) % 2 == 0) {
+            return line;
+        }
+
+        StringBuilder record = new StringBuilder(line);
+        long open = quotes(line);
+        while (open % 2 != 0) {
+            String continuation = readLine();
+            if (continuation == null) {
+                throw new IllegalArgumentException(location + ":" + recordLine + ": unterminated quoted field");
+            }
+            record.append('\n').append(continuation);
+            open += quotes(continuation);
+        }
+        return record.toString();
+    }
+
+    private static long quotes(String line) {
+        return line.chars().filter(c -> c == '"').count();
+    }
+
+    private String readLine() {
+        try {
+            String line = reader.readLine();
+            lineNumber++;
+            return line;
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("Could not read data file " + location, e);
+        }
+    }
+
+    /** Opens a file path, or a classpath resource if no such file exists. */
+    private static BufferedReader open(String location) {
+        try {
+            Path path = Path.of(location);
+            InputStream in = Files.isRegularFile(path)
+                    ? Files.newInputStream(path)
+                    : LineSource.class.getClassLoader().getResourceAsStream(location);
+            if (in == null) {
+                throw new IllegalArgumentException("Data file not found on disk or classpath: " + location);
+            }
+            return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open data file " + location, e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.ppelka.data;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Data-provider rows streamed from a CSV or JSONL file, for datasets too large for {@code Object[][]}.
+ *
+ * Rows are read lazily, one line at a time, so the provider needs the same memory for 50 rows
+ * as for 50,000. Return it from a {@code @DataProvider} declared as {@code Iterator<Object[]>}:
+ *
+ * <pre>
+ * &#64;DataProvider(name = "customers")
+ * public Iterator&lt;Object[]&gt; customers() {
+ *     return RowStream.open("data/customers.csv", "firstName", "lastName", "postalCode");
+ * }
+ * </pre>
+ *
+ * TestNG drains a parallel data provider as fast as it can and queues one task per row, which
+ * would pull the whole file into memory after all; the StreamingDataListener therefore puts
+ * every stream behind a {@link RowWindow}.
+ */
+public final class RowStream implements Iterator<Object[]>, Closeable {
+
+    /** Stream most recently opened on this thread, until a data-provider interceptor claims it. */
+    private static final ThreadLocal<RowStream> opened = new ThreadLocal<>();
+
+    private final LineSource source;
+
+    private RowStream(LineSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Opens a data file on disk or on the test classpath; the format follows the extension
+     * (.csv or .jsonl).
+     *
+     * @param location file path or classpath resource
+     * @param columns  columns of each row, in parameter order; all columns if none are given
+     */
+    public static RowStream open(String location, String... columns) {
+        String name = location.toLowerCase(Locale.ROOT);
+        LineSource.Format format;
+        if (name.endsWith(".csv")) {
+            format = LineSource.Format.CSV;
+        } else if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            format = LineSource.Format.JSONL;
+        } else {
+            throw new IllegalArgumentException("Unsupported data file (expected .csv or .jsonl): " + location);
+        }
+
+        RowStream stream = new RowStream(new LineSource(location, format, columns));
+        opened.set(stream);
+        return stream;
+    }
+
+    /**
+     * Returns the stream the data provider that just ran on this thread opened, or null.
+     * TestNG runs a data provider and its interceptors on the same thread, but hands the
+     * interceptors its own wrapper instead of the returned iterator.
+     */
+    public static RowStream claimOpened() {
+        RowStream stream = opened.get();
+        opened.remove();
+        return stream;
+    }
+
+    /**
+     * Lazily filters the rows of any data provider. Filtering happens inside a {@link RowWindow},
+     * so rejected rows never take a window slot, whatever order the interceptors run in.
+     */
+    public static Iterator<Object[]> filter(Iterator<Object[]> rows, Predicate<Object[]> accept) {
+        if (rows instanceof RowWindow window) {
+            return window.filtered(accept);
+        }
+        return new FilteringIterator(rows, accept);
+    }
+
+    // ============================================================
+    // Iterator
+    // ============================================================
+
+    @Override
+    public boolean hasNext() {
+        return source.hasNext();
+    }
+
+    @Override
+    public Object[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return source.next();
+    }
+
+    @Override
+    public void close() {
+        source.close();
+    }
+}
@@ -0,0 +1,72 @@
+package com.ppelka.data;
+
+import com.ppelka.core.ConfigReader;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Predicate;
+
+/**
+ * Backpressure for a data provider: hands out at most {@code data.stream.window} rows ahead of
+ * the rows that have finished, and blocks TestNG's submitting thread until a row completes.
+ *
+ * Every row handed out must be reported back through {@link #rowFinished()}, or the data
+ * provider stalls once the window is full.
+ *
+ * Configuration keys:
+ *  - data.stream.window -> "0" (rows in flight per data provider; 0 = 2 x test.data.provider.thread.count)
+ */
+public final class RowWindow implements Iterator<Object[]> {
+
+    private final Iterator<Object[]> rows;
+    private final Semaphore permits;
+
+    public RowWindow(Iterator<Object[]> rows) {
+        this(rows, size());
+    }
+
+    /** A window of a fixed size, regardless of configuration. */
+    RowWindow(Iterator<Object[]> rows, int size) {
+        this(rows, new Semaphore(size));
+    }
+
+    private RowWindow(Iterator<Object[]> rows, Semaphore permits) {
+        this.rows = rows;
+        this.permits = permits;
+    }
+
+    /** The same window over the rows the predicate accepts. */
+    RowWindow filtered(Predicate<Object[]> accept) {
+        return new RowWindow(new FilteringIterator(rows, accept), permits);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return rows.hasNext();
+    }
+
+    /** Returns the next row, waiting while the window is full. */
+    @Override
+    public Object[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        permits.acquireUninterruptibly();
+        return rows.next();
+    }
+
+    /** Frees the window slot of a row whose test has finished. */
+    public void rowFinished() {
+        permits.release();
+    }
+
+    private static int size() {
+        int window = ConfigReader.getInt("data.stream.window", 0);
+        if (window < 0) {
+            System.err.println("Warning: data.stream.window must not be negative. Using default: 0");
+            window = 0;
+        }
+        return (window > 0) ? window : 2 * Math.max(1, ConfigReader.getInt("test.data.provider.thread.count", 10));
+    }
+}
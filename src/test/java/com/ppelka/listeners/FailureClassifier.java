@@ -0,0 +1,87 @@
+package com.ppelka.listeners;
+
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Decides whether a test failure is transient, i.e. likely to pass when simply run again.
+ *
+ * Transient:
+ *  - {@link TimeoutException} and {@link StaleElementReferenceException} (the driver is still usable)
+ *  - {@link NoSuchSessionException} and {@link WebDriverException}s reporting a lost browser session
+ *    (the browser must be replaced)
+ *
+ * Everything else, in particular assertion failures, is treated as a real defect. A closed window
+ * ("no such window") is not a session loss: the session is still alive, the test's flow broke.
+ * The whole cause chain is inspected, so wrapped Selenium exceptions are recognised too.
+ */
+public final class FailureClassifier {
+
+    /** Message fragments of WebDriverExceptions raised when the browser or its driver went away. */
+    private static final List<String> SESSION_LOSS = List.of(
+            "invalid session id",
+            "session deleted",
+            "disconnected",
+            "not reachable",
+            "connection refused",
+            "failed to decode response from marionette",
+            "without establishing a connection",
+            "unable to connect");
+
+    private FailureClassifier() {
+        // Utility class; prevent instantiation
+    }
+
+    /**
+     * @param transientFailure true if a retry may pass
+     * @param sessionLost      true if the browser session is unusable and must be replaced
+     * @param reason           human-readable explanation for reports
+     */
+    public record Classification(boolean transientFailure, boolean sessionLost, String reason) {
+    }
+
+    public static Classification classify(Throwable failure) {
+        if (failure == null) {
+            return new Classification(false, false, "no exception recorded");
+        }
+
+        for (Throwable t = failure; t != null; t = (t.getCause() == t) ? null : t.getCause()) {
+            if (t instanceof AssertionError) {
+                return new Classification(false, false, "assertion failure (" + name(t) + ") will not pass on retry");
+            }
+            if (t instanceof NoSuchSessionException) {
+                return new Classification(true, true, "browser session lost (" + name(t) + ")");
+            }
+            if (t instanceof TimeoutException || t instanceof StaleElementReferenceException) {
+                return new Classification(true, false, "transient " + name(t));
+            }
+            if (t instanceof WebDriverException && isSessionLoss(t.getMessage())) {
+                return new Classification(true, true, "browser session lost (" + firstLine(t.getMessage()) + ")");
+            }
+        }
+
+        return new Classification(false, false, "non-transient " + name(failure));
+    }
+
+    private static boolean isSessionLoss(String message) {
+        if (message == null) {
+            return false;
+        }
+        String lower = message.toLowerCase(Locale.ROOT);
+        return SESSION_LOSS.stream().anyMatch(lower::contains);
+    }
+
+    private static String name(Throwable t) {
+        return t.getClass().getSimpleName();
+    }
+
+    private static String firstLine(String message) {
+        int newline = message.indexOf('\n');
+        return (newline < 0) ? message : message.substring(0, newline);
+    }
+}
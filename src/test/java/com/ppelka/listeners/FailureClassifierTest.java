@@ -0,0 +1,53 @@
+package com.ppelka.listeners;
+
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Browser-free table check of {@link FailureClassifier}: which failures are retried
+ * and which of those require a new browser session.
+ */
+public class FailureClassifierTest {
+
+    @DataProvider(name = "failures")
+    public Object[][] failures() {
+        return new Object[][]{
+                // failure, transient, session lost
+                {null, false, false},
+                {new AssertionError("expected [2] but found [1]"), false, false},
+                {new AssertionError("wrapped", new TimeoutException("late")), false, false},
+                {new IllegalStateException("bug"), false, false},
+                {new NoSuchElementException("no such element"), false, false},
+                {new NoSuchWindowException("no such window: target window already closed"), false, false},
+                {new TimeoutException("Expected condition failed"), true, false},
+                {new RuntimeException("step failed", new TimeoutException("late")), true, false},
+                {new StaleElementReferenceException("stale element reference"), true, false},
+                {new NoSuchSessionException("Session ID is null"), true, true},
+                {new RuntimeException("step failed", new NoSuchSessionException("gone")), true, true},
+                {new WebDriverException("invalid session id"), true, true},
+                {new WebDriverException("session deleted because of page crash"), true, true},
+                {new WebDriverException("chrome not reachable"), true, true},
+                {new WebDriverException("disconnected: not connected to DevTools"), true, true},
+                {new WebDriverException("java.net.ConnectException: Connection refused"), true, true},
+                {new WebDriverException("Failed to decode response from marionette"), true, true},
+                {new WebDriverException("Tried to run command without establishing a connection"), true, true},
+                {new WebDriverException("Unable to connect to host 127.0.0.1 on port 7055"), true, true},
+                {new WebDriverException("element click intercepted"), false, false},
+        };
+    }
+
+    @Test(dataProvider = "failures", groups = {"framework"})
+    public void classifiesFailure(Throwable failure, boolean transientFailure, boolean sessionLost) {
+        FailureClassifier.Classification classification = FailureClassifier.classify(failure);
+
+        Assert.assertEquals(classification.transientFailure(), transientFailure, "transient: " + classification.reason());
+        Assert.assertEquals(classification.sessionLost(), sessionLost, "session lost: " + classification.reason());
+    }
+}
@@ -0,0 +1,82 @@
+package com.ppelka.listeners;
+
+import com.ppelka.core.ConfigReader;
+import com.ppelka.utils.HarProxy;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * TestNG suite listener that routes the application's traffic through a {@link HarProxy}.
+ *
+ * When har.mode is "record" or "replay", the proxy is started before the suite,
+ * "proxy.address" is set so WebDriverFactory wires it into the browser capabilities,
+ * and "base.url" is switched to plain HTTP so the browser sends its requests to the proxy.
+ * Both properties get their previous values back when the suite finishes.
+ */
+public class HarProxyListener implements ISuiteListener {
+
+    private HarProxy proxy;
+
+    private String previousProxyAddress;
+    private String previousBaseUrl;
+
+    @Override
+    public void onStart(ISuite suite) {
+        String mode = ConfigReader.get("har.mode", "off").toLowerCase(Locale.ROOT);
+        if ("off".equals(mode)) {
+            return;
+        }
+        if (ConfigReader.getBoolean("aut.local.enabled", false)) {
+            System.err.println("Warning: har.mode is ignored while aut.local.enabled=true");
+            return;
+        }
+
+        URI upstream = URI.create(ConfigReader.get("base.url", "https://www.saucedemo.com/"));
+        proxy = new HarProxy(
+                HarProxy.Mode.valueOf(mode.toUpperCase(Locale.ROOT)),
+                Path.of(ConfigReader.get("har.dir", "src/test/resources/har")),
+                upstream);
+
+        try {
+            proxy.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start HAR proxy", e);
+        }
+
+        previousProxyAddress = System.getProperty("proxy.address");
+        previousBaseUrl = System.getProperty("base.url");
+        System.setProperty("proxy.address", proxy.address());
+        System.setProperty("base.url", upstream.toString().replaceFirst("^https://", "http://"));
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (proxy == null) {
+            return;
+        }
+
+        try {
+            proxy.stop();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save HAR recording", e);
+        } finally {
+            restore("proxy.address", previousProxyAddress);
+            restore("base.url", previousBaseUrl);
+            proxy = null;
+        }
+    }
+
+    private static void restore(String key, String previous) {
+        if (previous == null) {
+            System.clearProperty(key);
+        } else {
+            System.setProperty(key, previous);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.ppelka.listeners;
+
+import com.ppelka.abstractcomponents.InteractionMetrics;
+import com.ppelka.core.ConfigReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * TestNG suite listener that publishes the whole-run interaction metrics
+ * (slowest page/operation/locator combinations first) when the suite finishes.
+ *
+ * The summary is logged and written to metrics.summary.file.
+ */
+public class InteractionMetricsListener implements ISuiteListener {
+
+    private static final Logger log = LoggerFactory.getLogger(InteractionMetricsListener.class);
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (!ConfigReader.getBoolean("metrics.enabled", true)) {
+            return;
+        }
+
+        String summary = InteractionMetrics.runSummary(ConfigReader.getInt("metrics.summary.rows", 25));
+        log.info("Slowest interactions of suite '{}':\n{}", suite.getName(), summary);
+
+        Path file = Path.of(ConfigReader.get("metrics.summary.file", "target/interaction-metrics-summary.txt"));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.writeString(file, summary, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("Could not write interaction metrics summary to {}: {}", file, e.getMessage());
+        }
+    }
+}
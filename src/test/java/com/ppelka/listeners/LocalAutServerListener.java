@@ -0,0 +1,59 @@
+package com.ppelka.listeners;
+
+import com.ppelka.core.ConfigReader;
+import com.ppelka.utils.LocalAutServer;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * TestNG suite listener that serves the application under test from a local build.
+ *
+ * When aut.local.enabled is true, the server is started before the suite and
+ * "base.url" is pointed at it (system properties take priority in ConfigReader),
+ * so tests run without internet access and with controlled latency.
+ */
+public class LocalAutServerListener implements ISuiteListener {
+
+    private LocalAutServer server;
+
+    private String previousBaseUrl;
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (!ConfigReader.getBoolean("aut.local.enabled", false)) {
+            return;
+        }
+
+        server = new LocalAutServer(
+                Path.of(ConfigReader.get("aut.local.root", "src/test/resources/saucedemo")),
+                Duration.ofMillis(ConfigReader.getInt("aut.local.latency.ms", 0)),
+                Duration.ofMillis(ConfigReader.getInt("aut.local.jitter.ms", 0)));
+
+        try {
+            server.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start local AUT server", e);
+        }
+
+        previousBaseUrl = System.getProperty("base.url");
+        System.setProperty("base.url", server.url());
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (server != null) {
+            server.stop();
+            if (previousBaseUrl == null) {
+                System.clearProperty("base.url");
+            } else {
+                System.setProperty("base.url", previousBaseUrl);
+            }
+            server = null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.ppelka.listeners;
+
+import com.ppelka.core.ConfigReader;
+import org.testng.IAlterSuiteListener;
+import org.testng.IAnnotationTransformer;
+import org.testng.annotations.IDataProviderAnnotation;
+import org.testng.xml.XmlSuite;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Applies the parallel execution settings from ConfigReader to every suite,
+ * so parallelism can be changed with -D flags instead of editing testng.xml.
+ *
+ * Configuration keys:
+ *  - test.parallel                   -> "none" (none, methods, classes, instances, tests)
+ *  - test.thread.count               -> "1"
+ *  - test.parallel.data.providers    -> "false"
+ *  - test.data.provider.thread.count -> "10"
+ */
+public class ParallelExecutionListener implements IAlterSuiteListener, IAnnotationTransformer {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        String parallel = ConfigReader.get("test.parallel", "none");
+        XmlSuite.ParallelMode mode = XmlSuite.ParallelMode.getValidParallel(parallel);
+        if (mode == null) {
+            System.err.println("Warning: unknown test.parallel '" + parallel + "'. Using default: none");
+            mode = XmlSuite.ParallelMode.NONE;
+        }
+
+        for (XmlSuite suite : suites) {
+            suite.setParallel(mode);
+            suite.setThreadCount(ConfigReader.getInt("test.thread.count", 1));
+            suite.setDataProviderThreadCount(ConfigReader.getInt("test.data.provider.thread.count", 10));
+        }
+    }
+
+    @Override
+    public void transform(IDataProviderAnnotation annotation, Method method) {
+        if (ConfigReader.getBoolean("test.parallel.data.providers", false)) {
+            annotation.setParallel(true);
+        }
+    }
+}
@@ -1,24 +1,73 @@
 package com.ppelka.listeners;
 
+import com.ppelka.core.ConfigReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.testng.IRetryAnalyzer;
 import org.testng.ITestResult;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * TestNG retry mechanism.
  *
- * Retries a failed test once (configurable via maxRetryCount).
- * Useful for handling occasional flakiness caused by timing issues,
- * network delays, or transient UI states.
+ * Retries a failed test only if the {@link FailureClassifier} considers the failure transient,
+ * up to retry.max.count times per test and retry.budget times per run, so a broken build
+ * does not double its runtime. Each decision is stored on the test result, where
+ * {@code BaseTest} picks it up to report it and to keep the browser for the retry
+ * when the session is still usable.
+ *
+ * Configuration keys:
+ *  - retry.max.count -> "1"
+ *  - retry.budget    -> "10" (retries for the whole run; 0 disables retrying)
  */
 public class RetryAnalyzer implements IRetryAnalyzer {
 
-    private int retryCount = 0;
+    private static final Logger log = LoggerFactory.getLogger(RetryAnalyzer.class);
+
+    /** Result attribute holding the {@link Decision} for a failed attempt. */
+    public static final String DECISION_ATTRIBUTE = "retry.decision";
 
     /**
      * Maximum number of retries for a failed test.
      * Default: 1 retry.
      */
-    private static final int maxRetryCount = 1;
+    private static final int maxRetryCount = ConfigReader.getInt("retry.max.count", 1);
+
+    private static final int budget = ConfigReader.getInt("retry.budget", 10);
+
+    private static final AtomicInteger budgetUsed = new AtomicInteger();
+    private static final AtomicInteger refused = new AtomicInteger();
+    private static final LongAdder retriedMillis = new LongAdder();
+
+    private int retryCount = 0;
+
+    /**
+     * Outcome of the retry analysis of one failed attempt.
+     *
+     * @param retry          true if the test is run again
+     * @param reuseDriver    true if the retry may keep the current browser session
+     * @param reason         classification and budget explanation
+     * @param attempt        1-based number of the failed attempt
+     * @param attemptMillis  duration of the failed attempt
+     */
+    public record Decision(boolean retry, boolean reuseDriver, String reason, int attempt, long attemptMillis) {
+
+        public String describe() {
+            return String.format("Decision:        %s%n"
+                            + "Reason:          %s%n"
+                            + "Attempt:         %d of %d%n"
+                            + "Attempt time:    %d ms%s%n"
+                            + "Browser:         %s%n"
+                            + "Run budget used: %d of %d%n"
+                            + "Run retry time:  %d ms%n",
+                    retry ? "retry" : "no retry", reason, attempt, maxRetryCount + 1, attemptMillis,
+                    retry ? " (spent again on the retry)" : "",
+                    !retry ? "released" : reuseDriver ? "kept for the retry (no restart)" : "replaced",
+                    budgetUsed.get(), budget, retriedMillis.sum());
+        }
+    }
 
     /**
      * Determines whether a failed test should be retried.
@@ -28,10 +77,57 @@ public class RetryAnalyzer implements IRetryAnalyzer {
      */
     @Override
     public boolean retry(ITestResult result) {
-        if (retryCount < maxRetryCount) {
+        FailureClassifier.Classification classification = FailureClassifier.classify(result.getThrowable());
+        long attemptMillis = result.getEndMillis() - result.getStartMillis();
+
+        boolean retry = false;
+        String reason = classification.reason();
+        if (!classification.transientFailure()) {
+            reason += "; not retried";
+        } else if (retryCount >= maxRetryCount) {
+            reason += "; retry limit of " + maxRetryCount + " reached";
+        } else if (!consumeBudget()) {
+            reason += "; run retry budget of " + budget + " exhausted";
+            refused.incrementAndGet();
+        } else {
+            retry = true;
             retryCount++;
-            return true;
+            retriedMillis.add(attemptMillis);
         }
-        return false;
+
+        Decision decision = new Decision(retry, retry && !classification.sessionLost(), reason,
+                retryCount + (retry ? 0 : 1), attemptMillis);
+        result.setAttribute(DECISION_ATTRIBUTE, decision);
+        log.info("Retry analysis for {}: {} ({})", result.getMethod().getQualifiedName(),
+                retry ? "retrying" : "not retrying", reason);
+        return retry;
+    }
+
+    private static boolean consumeBudget() {
+        while (true) {
+            int used = budgetUsed.get();
+            if (used >= budget) {
+                return false;
+            }
+            if (budgetUsed.compareAndSet(used, used + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the retry decision recorded for a failed attempt, or null for passed tests.
+     */
+    public static Decision decisionOf(ITestResult result) {
+        Object decision = result.getAttribute(DECISION_ATTRIBUTE);
+        return (decision instanceof Decision d) ? d : null;
+    }
+
+    /**
+     * Returns a one-line summary of the retries of the whole run.
+     */
+    public static String runSummary() {
+        return String.format("%d retr%s of budget %d, %d refused for lack of budget, %d ms spent in retried attempts",
+                budgetUsed.get(), budgetUsed.get() == 1 ? "y" : "ies", budget, refused.get(), retriedMillis.sum());
     }
 }
@@ -1,6 +1,10 @@
 package com.ppelka.listeners;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.testng.IAnnotationTransformer;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
 import org.testng.annotations.ITestAnnotation;
 
 import java.lang.reflect.Constructor;
@@ -12,8 +16,11 @@ import java.lang.reflect.Method;
  *
  * This ensures consistent retry behavior across the entire test suite
  * without requiring manual configuration on each @Test annotation.
+ * The retries of the whole run are summarised when the suite finishes.
  */
-public class RetryListener implements IAnnotationTransformer {
+public class RetryListener implements IAnnotationTransformer, ISuiteListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RetryListener.class);
 
     @Override
     public void transform(ITestAnnotation annotation,
@@ -24,4 +31,9 @@ public class RetryListener implements IAnnotationTransformer {
         // Apply RetryAnalyzer to all test methods
         annotation.setRetryAnalyzer(RetryAnalyzer.class);
     }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        log.info("Retries of suite '{}': {}", suite.getName(), RetryAnalyzer.runSummary());
+    }
 }
@@ -0,0 +1,244 @@
+package com.ppelka.listeners;
+
+import com.ppelka.core.ConfigReader;
+import com.ppelka.data.RowStream;
+import com.ppelka.utils.TestTimingStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IDataProviderInterceptor;
+import org.testng.IDataProviderMethod;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Duration-aware sharding of the suite across JVM forks or machines.
+ *
+ * Every test method and data-provider row is a unit weighted by its historical duration
+ * from the {@link TestTimingStore}; units without history are weighted with the median.
+ * With {@code -Dshard=i/n}, all shards compute the same longest-processing-time-first plan
+ * (heaviest unit to the least loaded shard) and each runs only its own units. Data-driven
+ * methods are kept in every shard and their rows are filtered as they are produced; rows
+ * without history are spread by a stable hash of their arguments.
+ *
+ * Durations of every run are recorded, sharded or not, so the next plan is based on them.
+ *
+ * Configuration keys:
+ *  - shard                 -> unset (run everything), e.g. "2/4"
+ *  - shard.timings.file    -> "test-timings.properties" (comma-separated, later files win)
+ *  - shard.timings.output  -> "target/test-timings.properties" (shard suffix added when sharded)
+ */
+public class ShardingInterceptor implements IMethodInterceptor, IDataProviderInterceptor,
+        ITestListener, ISuiteListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardingInterceptor.class);
+
+    /** Weight of a unit when nothing at all has been recorded yet. */
+    private static final long DEFAULT_MILLIS = 1_000;
+
+    private final int index;
+    private final int count;
+
+    private TestTimingStore store;
+
+    /** Shard of every unit key, per suite. */
+    private final Map<String, Map<String, Integer>> plans = new HashMap<>();
+
+    public ShardingInterceptor() {
+        int[] spec = parseShard(ConfigReader.get("shard"));
+        this.index = spec[0];
+        this.count = spec[1];
+    }
+
+    private static int[] parseShard(String value) {
+        if (value == null || value.isBlank()) {
+            return new int[]{0, 1};
+        }
+        try {
+            String[] parts = value.trim().split("/");
+            int i = Integer.parseInt(parts[0].trim());
+            int n = Integer.parseInt(parts[1].trim());
+            if (parts.length == 2 && n >= 1 && i >= 1 && i <= n) {
+                return new int[]{i - 1, n};
+            }
+        } catch (RuntimeException ignored) {
+            // Reported below
+        }
+        System.err.println("Warning: invalid shard '" + value + "' (expected i/n with 1 <= i <= n). Using default: all tests");
+        return new int[]{0, 1};
+    }
+
+    private boolean sharded() {
+        return count > 1;
+    }
+
+    // ============================================================
+    // Suite lifecycle
+    // ============================================================
+
+    @Override
+    public void onStart(ISuite suite) {
+        store();
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        Path output = outputFile();
+        try {
+            store().save(output);
+        } catch (IOException e) {
+            log.warn("Could not write test timings to {}: {}", output, e.getMessage());
+        }
+    }
+
+    private synchronized TestTimingStore store() {
+        if (store == null) {
+            List<Path> files = Arrays.stream(ConfigReader.get("shard.timings.file", "test-timings.properties").split(","))
+                    .map(String::trim)
+                    .filter(s -> !s.isEmpty())
+                    .map(Path::of)
+                    .collect(Collectors.toList());
+            store = TestTimingStore.load(files);
+        }
+        return store;
+    }
+
+    private Path outputFile() {
+        String output = ConfigReader.get("shard.timings.output", "target/test-timings.properties");
+        if (!sharded()) {
+            return Path.of(output);
+        }
+        int dot = output.lastIndexOf('.');
+        String suffix = "-shard" + (index + 1) + "of" + count;
+        return Path.of(dot > output.lastIndexOf('/') ? output.substring(0, dot) + suffix + output.substring(dot) : output + suffix);
+    }
+
+    // ============================================================
+    // Selection
+    // ============================================================
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!sharded()) {
+            return methods;
+        }
+
+        Map<String, Integer> plan = plan(context.getSuite());
+        List<IMethodInstance> selected = new ArrayList<>();
+        for (IMethodInstance instance : methods) {
+            ITestNGMethod method = instance.getMethod();
+            // Rows of data-driven methods are filtered when the data provider runs
+            if (method.isDataDriven() || shardOf(plan, TestTimingStore.key(method)) == index) {
+                selected.add(instance);
+            }
+        }
+
+        log.info("Shard {}/{} runs {} of {} method(s) in '{}'", index + 1, count, selected.size(), methods.size(),
+                context.getName());
+        return selected;
+    }
+
+    @Override
+    public Iterator<Object[]> intercept(Iterator<Object[]> original, IDataProviderMethod dataProviderMethod,
+                                        ITestNGMethod method, ITestContext context) {
+        if (!sharded()) {
+            return original;
+        }
+
+        Map<String, Integer> plan = plan(context.getSuite());
+        return RowStream.filter(original,
+                row -> shardOf(plan, TestTimingStore.rowKey(method, row)) == index);
+    }
+
+    private int shardOf(Map<String, Integer> plan, String key) {
+        Integer shard = plan.get(key);
+        return (shard != null) ? shard : Math.floorMod(key.hashCode(), count);
+    }
+
+    // ============================================================
+    // Planning
+    // ============================================================
+
+    /**
+     * Assigns every known unit of the suite to a shard, heaviest first to the least loaded shard.
+     * Ties are broken by key and shard number, so every shard computes the same plan.
+     */
+    private synchronized Map<String, Integer> plan(ISuite suite) {
+        return plans.computeIfAbsent(suite.getName(), name -> {
+            TestTimingStore timings = store();
+            long estimate = timings.median(DEFAULT_MILLIS);
+
+            Map<String, Long> units = new LinkedHashMap<>();
+            for (ITestNGMethod method : suite.getAllMethods()) {
+                if (method.isDataDriven()) {
+                    units.putAll(timings.rowsOf(method));
+                } else {
+                    Long known = timings.get(TestTimingStore.key(method));
+                    units.put(TestTimingStore.key(method),
+                            known != null ? known : estimate * Math.max(1, method.getInvocationCount()));
+                }
+            }
+
+            List<Map.Entry<String, Long>> ordered = new ArrayList<>(units.entrySet());
+            ordered.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey()));
+
+            long[] loads = new long[count];
+            Map<String, Integer> plan = new HashMap<>();
+            for (Map.Entry<String, Long> unit : ordered) {
+                int lightest = 0;
+                for (int shard = 1; shard < count; shard++) {
+                    if (loads[shard] < loads[lightest]) {
+                        lightest = shard;
+                    }
+                }
+                loads[lightest] += unit.getValue();
+                plan.put(unit.getKey(), lightest);
+            }
+
+            log.info("Shard plan for suite '{}': {} unit(s), estimated seconds per shard {}", name, ordered.size(),
+                    Arrays.stream(loads).mapToObj(ms -> String.format("%.1f", ms / 1000.0))
+                            .collect(Collectors.joining(", ", "[", "]")));
+            return plan;
+        });
+    }
+
+    // ============================================================
+    // Recording
+    // ============================================================
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result);
+    }
+
+    private void record(ITestResult result) {
+        ITestNGMethod method = result.getMethod();
+        String key = method.isDataDriven()
+                ? TestTimingStore.rowKey(method, result.getParameters())
+                : TestTimingStore.key(method);
+        store().record(key, result.getEndMillis() - result.getStartMillis());
+    }
+}
@@ -0,0 +1,82 @@
+package com.ppelka.listeners;
+
+import com.ppelka.data.RowStream;
+import com.ppelka.data.RowWindow;
+import org.testng.IDataProviderInterceptor;
+import org.testng.IDataProviderMethod;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies backpressure to streaming data providers ({@link RowStream}).
+ *
+ * Puts the rows of every data provider that opened a RowStream behind a {@link RowWindow} and
+ * frees one window slot whenever one of its rows finishes, so a parallel data provider only has
+ * a bounded number of rows read ahead and queued. Attempts that are retried do not free a slot;
+ * their final attempt does. Streams that were not read to the end are closed when their test finishes.
+ */
+public class StreamingDataListener implements IDataProviderInterceptor, ITestListener {
+
+    private record Throttled(RowStream stream, RowWindow window) {
+    }
+
+    private final Map<ITestNGMethod, Throttled> streams = new ConcurrentHashMap<>();
+
+    @Override
+    public Iterator<Object[]> intercept(Iterator<Object[]> original, IDataProviderMethod dataProviderMethod,
+                                        ITestNGMethod method, ITestContext context) {
+        RowStream stream = RowStream.claimOpened();
+        if (stream == null) {
+            return original;
+        }
+
+        RowWindow window = new RowWindow(original);
+        streams.put(method, new Throttled(stream, window));
+        return window;
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        rowFinished(result);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        rowFinished(result);
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        if (!result.wasRetried()) {
+            rowFinished(result);
+        }
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        rowFinished(result);
+    }
+
+    @Override
+    public void onFinish(ITestContext context) {
+        for (ITestNGMethod method : context.getAllTestMethods()) {
+            Throttled throttled = streams.remove(method);
+            if (throttled != null) {
+                throttled.stream().close();
+            }
+        }
+    }
+
+    private void rowFinished(ITestResult result) {
+        Throttled throttled = streams.get(result.getMethod());
+        if (throttled != null) {
+            throttled.window().rowFinished();
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.ppelka.runner;
+
+import com.ppelka.core.ConfigReader;
+import com.ppelka.utils.TestTimingStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.internal.Parser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Coordinator of a work-stealing run on one machine.
+ *
+ * Splits the suite into {@link WorkUnit units} (methods and buckets of data-provider rows), starts
+ * {@code runner.workers} worker JVMs and serves them units over a Unix domain socket from a
+ * {@link WorkQueue} ordered by expected duration. Results are streamed back as they happen
+ * and recorded as timing history; each worker writes Allure results to its own directory,
+ * which are merged into one results directory at the end. A unit whose worker dies is
+ * handed to another worker once; idle workers are kept waiting until no unit is in flight,
+ * so a requeued unit always finds a live worker unless every worker died.
+ *
+ * JVM options given to the coordinator (e.g. -javaagent, -D flags) are passed on to the workers.
+ *
+ * Usage: DistributedRunner [suite file, default testng.xml]
+ *
+ * Configuration keys:
+ *  - runner.workers      -> "2"
+ *  - runner.row.buckets  -> "0" (row buckets per data-driven method; 0 = 4 x runner.workers)
+ *  - runner.dir          -> "target/runner" (socket, worker logs and results)
+ *  - runner.results.dir  -> "target/allure-results"
+ */
+public final class DistributedRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DistributedRunner.class);
+
+    private final XmlSuite suite;
+    private final String suiteFile;
+    private final int workers;
+    private final Path dir;
+    private final TestTimingStore timings;
+    private final WorkQueue queue;
+    private final int slots;
+
+    private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> requeued = new ConcurrentHashMap<>();
+    private final AtomicInteger lostUnits = new AtomicInteger();
+    private final AtomicInteger finishedWorkers = new AtomicInteger();
+
+    private DistributedRunner(String suiteFile) throws IOException {
+        this.suiteFile = suiteFile;
+        this.suite = new Parser(suiteFile).parseToList().get(0);
+        this.workers = Math.max(1, ConfigReader.getInt("runner.workers", 2));
+        this.dir = Path.of(ConfigReader.get("runner.dir", "target/runner")).toAbsolutePath();
+        this.timings = TestTimingStore.load(timingFiles());
+
+        List<WorkUnit> units = WorkUnit.enumerate(suite, timings, rowBuckets(workers));
+        this.queue = new WorkQueue(units, workers);
+        // Every unit could end up on one worker; each crashed worker requeues at most one unit
+        this.slots = units.size() + workers;
+
+        log.info("Distributing {} unit(s) of suite '{}' over {} worker(s), ~{} s of expected work",
+                units.size(), suite.getName(), workers,
+                units.stream().mapToLong(WorkUnit::expectedMillis).sum() / 1000);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int exitCode = new DistributedRunner(args.length > 0 ? args[0] : "testng.xml").run();
+        System.exit(exitCode);
+    }
+
+    private static int rowBuckets(int workers) {
+        int buckets = ConfigReader.getInt("runner.row.buckets", 0);
+        if (buckets < 0) {
+            System.err.println("Warning: runner.row.buckets must not be negative. Using default: 0");
+            buckets = 0;
+        }
+        return (buckets > 0) ? buckets : 4 * workers;
+    }
+
+    /** Timing history files, shared with the sharding interceptor. */
+    static List<Path> timingFiles() {
+        return Arrays.stream(ConfigReader.get("shard.timings.file", "test-timings.properties").split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(Path::of)
+                .collect(Collectors.toList());
+    }
+
+    // ============================================================
+    // Run
+    // ============================================================
+
+    private int run() throws IOException, InterruptedException {
+        Files.createDirectories(dir);
+        Path socket = Files.createTempDirectory("saucedemo-runner").resolve("coordinator.sock");
+
+        long start = System.nanoTime();
+        List<Thread> handlers = new ArrayList<>();
+        List<Process> processes = new ArrayList<>();
+
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socket));
+            server.configureBlocking(false);
+
+            for (int id = 0; id < workers; id++) {
+                processes.add(launchWorker(id, socket));
+            }
+
+            // Stop waiting for connections once no worker is alive (e.g. bad JVM options, missing classes)
+            while (handlers.size() < workers && processes.stream().anyMatch(Process::isAlive)) {
+                SocketChannel channel = server.accept();
+                if (channel == null) {
+                    Thread.sleep(50);
+                    continue;
+                }
+                channel.configureBlocking(true);
+                Thread handler = new Thread(() -> serve(channel), "runner-handler-" + handlers.size());
+                handler.start();
+                handlers.add(handler);
+            }
+
+            for (Thread handler : handlers) {
+                handler.join();
+            }
+        } finally {
+            Files.deleteIfExists(socket);
+            Files.deleteIfExists(socket.getParent());
+        }
+
+        for (Process process : processes) {
+            process.waitFor();
+        }
+        int crashed = workers - finishedWorkers.get();
+        int unserved = queue.pending();
+        if (unserved > 0) {
+            log.error("{} unit(s) were never run: no live worker was left to take them", unserved);
+            lostUnits.addAndGet(unserved);
+        }
+
+        mergeAllureResults();
+        saveTimings();
+
+        long failed = count("FAIL");
+        log.info("Distributed run finished in {} s: {} passed, {} failed, {} skipped, {} retried;"
+                        + " {} unit(s) stolen, {} lost, {} worker(s) crashed",
+                (System.nanoTime() - start) / 1_000_000_000, count("PASS"), failed, count("SKIP"), count("RETRY"),
+                queue.stolen(), lostUnits.get(), crashed);
+        return (failed == 0 && lostUnits.get() == 0 && crashed == 0) ? 0 : 1;
+    }
+
+    private Process launchWorker(int id, Path socket) throws IOException {
+        Path workerDir = dir.resolve("worker-" + id);
+        Files.createDirectories(workerDir);
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            // Debug agents would clash on their port; the worker's own settings are set below
+            if (!arg.startsWith("-agentlib:jdwp") && !arg.startsWith("-Dshard=")
+                    && !arg.startsWith("-Dallure.results.directory=") && !arg.startsWith("-Dtest.parallel=")) {
+                command.add(arg);
+            }
+        }
+        aspectjAgent().ifPresent(command::add);
+        command.add("-Dallure.results.directory=" + workerDir.resolve("allure-results"));
+        command.add("-Dtest.parallel=none");
+        command.add("-Dshard.timings.output=" + workerDir.resolve("test-timings.properties"));
+        command.add("-Dmetrics.summary.file=" + workerDir.resolve("interaction-metrics-summary.txt"));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Worker.class.getName());
+        command.add(socket.toString());
+        command.add(suiteFile);
+        command.add(Integer.toString(id));
+
+        log.info("Starting worker {} (log: {})", id, workerDir.resolve("worker.log"));
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(workerDir.resolve("worker.log").toFile())
+                .start();
+    }
+
+    /** Allure steps need the AspectJ agent; add it when the coordinator was started without it. */
+    private static Optional<String> aspectjAgent() {
+        boolean present = ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                .anyMatch(arg -> arg.startsWith("-javaagent:") && arg.contains("aspectjweaver"));
+        if (present) {
+            return Optional.empty();
+        }
+        return Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .filter(entry -> Path.of(entry).getFileName().toString().startsWith("aspectjweaver"))
+                .findFirst()
+                .map(jar -> "-javaagent:" + jar);
+    }
+
+    // ============================================================
+    // Protocol
+    // ============================================================
+
+    private void serve(SocketChannel channel) {
+        String worker = "?";
+        WorkUnit inFlight = null;
+
+        try (channel;
+             BufferedReader in = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), true)) {
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split("\t", 4);
+                switch (fields[0]) {
+                    case Protocol.HELLO -> {
+                        worker = fields[1];
+                        out.println(Protocol.SLOTS + "\t" + slots);
+                    }
+                    case Protocol.NEXT -> {
+                        if (inFlight != null) {
+                            queue.finished(inFlight);
+                            inFlight = null;
+                        }
+                        inFlight = queue.take(Integer.parseInt(worker));
+                        if (inFlight == null) {
+                            out.println(Protocol.END);
+                        } else {
+                            log.debug("Worker {} runs {}", worker, inFlight.key());
+                            out.println(Protocol.RUN + "\t" + inFlight.encode());
+                        }
+                    }
+                    case Protocol.RESULT -> record(worker, fields[1], Long.parseLong(fields[2]), fields[3]);
+                    case Protocol.BYE -> {
+                        if (inFlight != null) {
+                            queue.finished(inFlight);
+                            inFlight = null;
+                        }
+                        finishedWorkers.incrementAndGet();
+                    }
+                    default -> log.warn("Unknown message from worker {}: {}", worker, line);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Connection to worker {} failed: {}", worker, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Handler of worker {} interrupted", worker);
+        }
+
+        if (inFlight != null) {
+            if (requeued.putIfAbsent(inFlight.key(), true) == null) {
+                log.warn("Worker {} died while running {}; handing it to another worker", worker, inFlight.key());
+                queue.requeue(inFlight);
+            } else {
+                log.error("Unit {} killed a second worker; giving up on it", inFlight.key());
+                lostUnits.incrementAndGet();
+                queue.finished(inFlight);
+            }
+        }
+    }
+
+    private void record(String worker, String status, long millis, String key) {
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        if (!"RETRY".equals(status)) {
+            timings.record(key, millis);
+        }
+        log.info("[worker {}] {} {} ({} ms)", worker, status, key, millis);
+    }
+
+    private long count(String status) {
+        LongAdder adder = statuses.get(status);
+        return (adder == null) ? 0 : adder.sum();
+    }
+
+    // ============================================================
+    // Results
+    // ============================================================
+
+    /** Moves every worker's Allure result files (uniquely named) into the shared results directory. */
+    private void mergeAllureResults() throws IOException {
+        Path target = Path.of(ConfigReader.get("runner.results.dir", "target/allure-results"));
+        Files.createDirectories(target);
+
+        int moved = 0;
+        for (int id = 0; id < workers; id++) {
+            Path results = dir.resolve("worker-" + id).resolve("allure-results");
+            if (!Files.isDirectory(results)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.list(results)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.move(file, target.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                    moved++;
+                }
+            }
+        }
+        log.info("Merged {} Allure result file(s) into {}", moved, target);
+    }
+
+    private void saveTimings() {
+        Path output = Path.of(ConfigReader.get("shard.timings.output", "target/test-timings.properties"));
+        try {
+            timings.save(output);
+        } catch (IOException e) {
+            log.warn("Could not write test timings to {}: {}", output, e.getMessage());
+        }
+    }
+}
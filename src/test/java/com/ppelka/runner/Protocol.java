@@ -0,0 +1,33 @@
+package com.ppelka.runner;
+
+/**
+ * Line-based messages exchanged over the coordinator's Unix domain socket.
+ *
+ * Worker to coordinator:
+ *  - HELLO &lt;id&gt;                       first message after connecting
+ *  - NEXT                               previous unit (if any) is finished, send the next one
+ *  - RESULT &lt;status&gt; &lt;millis&gt; &lt;key&gt;   one test invocation finished (PASS, FAIL, SKIP, RETRY)
+ *  - BYE                                the worker suite finished
+ *
+ * Coordinator to worker:
+ *  - SLOTS &lt;n&gt;                        number of unit slots the worker suite must provide
+ *  - RUN &lt;unit&gt;                       next {@link WorkUnit#encode() unit}
+ *  - END                                no work left
+ *
+ * Fields are separated by tabs.
+ */
+final class Protocol {
+
+    static final String HELLO = "HELLO";
+    static final String NEXT = "NEXT";
+    static final String RESULT = "RESULT";
+    static final String BYE = "BYE";
+
+    static final String SLOTS = "SLOTS";
+    static final String RUN = "RUN";
+    static final String END = "END";
+
+    private Protocol() {
+        // Constants only
+    }
+}
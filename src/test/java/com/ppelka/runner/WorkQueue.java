@@ -0,0 +1,127 @@
+package com.ppelka.runner;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Work-stealing queue of {@link WorkUnit units}, one deque per worker.
+ *
+ * Units are pre-assigned longest-processing-time-first, so that every deque starts with about
+ * the same expected duration, and each deque is ordered heaviest first. A worker takes from
+ * the head of its own deque; once that is empty it steals from the tail (the lightest units)
+ * of the deque with the most expected work left, so stragglers are absorbed by idle workers.
+ *
+ * Units handed out stay in flight until their worker reports them {@link #finished finished}.
+ * A worker that finds every deque empty waits while other units are still in flight, because
+ * a unit whose worker dies is {@link #requeue requeued} and must find a live worker to run it.
+ */
+final class WorkQueue {
+
+    private final List<Deque<WorkUnit>> deques = new ArrayList<>();
+
+    /** Expected milliseconds left in each deque. */
+    private final long[] remaining;
+
+    private int stolen;
+
+    /** Units handed out and neither finished nor requeued yet. */
+    private int inFlight;
+
+    WorkQueue(List<WorkUnit> units, int workers) {
+        remaining = new long[workers];
+        for (int i = 0; i < workers; i++) {
+            deques.add(new ArrayDeque<>());
+        }
+
+        List<WorkUnit> ordered = new ArrayList<>(units);
+        ordered.sort(Comparator.comparingLong(WorkUnit::expectedMillis).reversed()
+                .thenComparing(WorkUnit::key));
+        for (WorkUnit unit : ordered) {
+            int lightest = lightest();
+            deques.get(lightest).addLast(unit);
+            remaining[lightest] += unit.expectedMillis();
+        }
+    }
+
+    /**
+     * Returns the next unit for the worker, stealing from the busiest deque when its own is empty.
+     * Waits while the deques are empty but other units are still in flight.
+     *
+     * @return the unit, or null once no work is left anywhere and nothing is in flight
+     */
+    synchronized WorkUnit take(int worker) throws InterruptedException {
+        while (true) {
+            WorkUnit unit = poll(worker);
+            if (unit != null) {
+                inFlight++;
+                return unit;
+            }
+            if (inFlight == 0) {
+                return null;
+            }
+            wait();
+        }
+    }
+
+    /** Marks a unit as done (finished, or given up on); idle workers may end once nothing is in flight. */
+    synchronized void finished(WorkUnit unit) {
+        inFlight--;
+        notifyAll();
+    }
+
+    private WorkUnit poll(int worker) {
+        WorkUnit unit = deques.get(worker).pollFirst();
+        if (unit != null) {
+            remaining[worker] -= unit.expectedMillis();
+            return unit;
+        }
+
+        int victim = -1;
+        for (int i = 0; i < deques.size(); i++) {
+            if (!deques.get(i).isEmpty() && (victim < 0 || remaining[i] > remaining[victim])) {
+                victim = i;
+            }
+        }
+        if (victim < 0) {
+            return null;
+        }
+
+        unit = deques.get(victim).pollLast();
+        remaining[victim] -= unit.expectedMillis();
+        stolen++;
+        return unit;
+    }
+
+    /**
+     * Puts back a unit whose worker died, at the head of the least loaded deque.
+     */
+    synchronized void requeue(WorkUnit unit) {
+        int lightest = lightest();
+        deques.get(lightest).addFirst(unit);
+        remaining[lightest] += unit.expectedMillis();
+        inFlight--;
+        notifyAll();
+    }
+
+    synchronized int stolen() {
+        return stolen;
+    }
+
+    /** Units never handed out, e.g. requeued after every worker died. */
+    synchronized int pending() {
+        return deques.stream().mapToInt(Deque::size).sum();
+    }
+
+    private int lightest() {
+        int lightest = 0;
+        for (int i = 1; i < remaining.length; i++) {
+            if (remaining[i] < remaining[lightest]) {
+                lightest = i;
+            }
+        }
+        return lightest;
+    }
+}
@@ -0,0 +1,213 @@
+package com.ppelka.runner;
+
+import com.ppelka.utils.TestTimingStore;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Smallest piece of work handed to a worker: a whole test method, one bucket of the
+ * data-provider rows with timing history, or the remaining rows of a data-driven method
+ * that have none.
+ *
+ * Rows with history are spread over at most {@code runner.row.buckets} buckets per method
+ * by a hash of their row key, so the number of units (and of worker slots) grows with the
+ * number of methods, not with the size of their datasets.
+ *
+ * @param kind           what part of the method runs
+ * @param testName       name of the {@code <test>} the method belongs to in the suite file
+ * @param qualifiedName  fully qualified class name and method name
+ * @param bucket         bucket of the rows this unit runs (BUCKET only)
+ * @param buckets        number of buckets the method's known rows are spread over (BUCKET only)
+ * @param expectedMillis historical duration, or the median for units without history
+ */
+record WorkUnit(Kind kind, String testName, String qualifiedName, int bucket, int buckets, long expectedMillis) {
+
+    enum Kind {
+        METHOD, BUCKET, REST
+    }
+
+    /** Unit key used in logs and by the coordinator; also the timing key for METHOD units. */
+    String key() {
+        return switch (kind) {
+            case METHOD -> qualifiedName;
+            case BUCKET -> qualifiedName + "[" + (bucket + 1) + "/" + buckets + "]";
+            case REST -> qualifiedName + "(*)";
+        };
+    }
+
+    /** Returns true if a row with timing history belongs to this BUCKET unit. */
+    boolean containsRow(String rowKey) {
+        return bucketOf(rowKey, buckets) == bucket;
+    }
+
+    private static int bucketOf(String rowKey, int buckets) {
+        // String hashes are specified, so coordinator and workers agree on the buckets
+        return Math.floorMod(rowKey.hashCode(), buckets);
+    }
+
+    String className() {
+        return qualifiedName.substring(0, qualifiedName.lastIndexOf('.'));
+    }
+
+    // ============================================================
+    // Wire format (one tab-separated line)
+    // ============================================================
+
+    String encode() {
+        return String.join("\t", kind.name(), testName, qualifiedName, Integer.toString(bucket),
+                Integer.toString(buckets), Long.toString(expectedMillis));
+    }
+
+    static WorkUnit decode(String line) {
+        String[] f = line.split("\t", -1);
+        return new WorkUnit(Kind.valueOf(f[0]), f[1], f[2], Integer.parseInt(f[3]), Integer.parseInt(f[4]),
+                Long.parseLong(f[5]));
+    }
+
+    // ============================================================
+    // Discovery
+    // ============================================================
+
+    /**
+     * Lists the units of every enabled test method of the suite, in suite order, honouring each
+     * {@code <test>}'s {@code <groups>} and {@code <methods>} include/exclude lists.
+     * Data-driven methods are split into at most {@code rowBuckets} buckets of known rows plus one REST unit.
+     *
+     * @throws IllegalArgumentException if the suite selects tests in a way workers cannot reproduce
+     */
+    static List<WorkUnit> enumerate(XmlSuite suite, TestTimingStore timings, int rowBuckets) {
+        long estimate = timings.median(1_000);
+        List<WorkUnit> units = new ArrayList<>();
+
+        for (XmlTest test : suite.getTests()) {
+            checkSupported(test);
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                for (Method method : testMethods(xmlClass)) {
+                    if (!inGroups(test, method)) {
+                        continue;
+                    }
+                    Test annotation = annotation(method);
+                    String qualifiedName = xmlClass.getSupportClass().getName() + "." + method.getName();
+
+                    if (annotation.dataProvider().isEmpty()) {
+                        Long known = timings.get(qualifiedName);
+                        units.add(new WorkUnit(Kind.METHOD, test.getName(), qualifiedName, 0, 0,
+                                known != null ? known : estimate * Math.max(1, annotation.invocationCount())));
+                        continue;
+                    }
+
+                    Map<String, Long> rows = timings.rowsOf(qualifiedName);
+                    int buckets = Math.min(rows.size(), Math.max(1, rowBuckets));
+                    long[] bucketMillis = new long[buckets];
+                    rows.forEach((rowKey, millis) -> bucketMillis[bucketOf(rowKey, buckets)] += millis);
+                    for (int bucket = 0; bucket < buckets; bucket++) {
+                        units.add(new WorkUnit(Kind.BUCKET, test.getName(), qualifiedName, bucket, buckets,
+                                bucketMillis[bucket]));
+                    }
+                    // Rows added since the last recorded run; cheap when there are none
+                    units.add(new WorkUnit(Kind.REST, test.getName(), qualifiedName, 0, 0,
+                            rows.isEmpty() ? estimate : 0));
+                }
+            }
+        }
+        return units;
+    }
+
+    /** Every @Test method of the class that the suite file includes, sorted by name. */
+    static List<Method> testMethods(XmlClass xmlClass) {
+        Set<String> included = xmlClass.getIncludedMethods().stream()
+                .map(XmlInclude::getName)
+                .collect(Collectors.toSet());
+        Set<String> excluded = Set.copyOf(xmlClass.getExcludedMethods());
+
+        return Arrays.stream(xmlClass.getSupportClass().getMethods())
+                .filter(m -> !Modifier.isStatic(m.getModifiers()) && m.getDeclaringClass() != Object.class)
+                .filter(m -> annotation(m) != null && annotation(m).enabled())
+                .filter(m -> included.isEmpty() || included.contains(m.getName()))
+                .filter(m -> !excluded.contains(m.getName()))
+                .sorted(Comparator.comparing(Method::getName))
+                .collect(Collectors.toList());
+    }
+
+    /** Workers only see classes and their methods; other ways of selecting tests are refused up front. */
+    private static void checkSupported(XmlTest test) {
+        if (!test.getXmlPackages().isEmpty()) {
+            throw new IllegalArgumentException("Test '" + test.getName()
+                    + "' uses <packages>, which the distributed runner does not support; list its <classes>");
+        }
+        if (!test.getMethodSelectors().isEmpty() || test.getScript() != null) {
+            throw new IllegalArgumentException("Test '" + test.getName()
+                    + "' uses <method-selectors>, which the distributed runner does not support");
+        }
+    }
+
+    /** Applies the test's included/excluded groups (regular expressions, meta-groups expanded) like TestNG. */
+    private static boolean inGroups(XmlTest test, Method method) {
+        List<String> included = expand(test.getIncludedGroups(), test.getMetaGroups());
+        List<String> excluded = expand(test.getExcludedGroups(), test.getMetaGroups());
+        if (included.isEmpty() && excluded.isEmpty()) {
+            return true;
+        }
+
+        Set<String> groups = new LinkedHashSet<>();
+        Test classLevel = method.getDeclaringClass().getAnnotation(Test.class);
+        if (classLevel != null) {
+            groups.addAll(Arrays.asList(classLevel.groups()));
+        }
+        Test methodLevel = method.getAnnotation(Test.class);
+        if (methodLevel != null) {
+            groups.addAll(Arrays.asList(methodLevel.groups()));
+        }
+
+        if (!included.isEmpty() && groups.stream().noneMatch(group -> matchesAny(group, included))) {
+            return false;
+        }
+        return groups.stream().noneMatch(group -> matchesAny(group, excluded));
+    }
+
+    private static List<String> expand(List<String> groups, Map<String, List<String>> metaGroups) {
+        List<String> expanded = new ArrayList<>();
+        Deque<String> pending = new ArrayDeque<>(groups);
+        Set<String> seen = new LinkedHashSet<>();
+        while (!pending.isEmpty()) {
+            String group = pending.poll();
+            if (!seen.add(group)) {
+                continue;
+            }
+            List<String> members = metaGroups.get(group);
+            if (members != null) {
+                pending.addAll(members);
+            } else {
+                expanded.add(group);
+            }
+        }
+        return expanded;
+    }
+
+    private static boolean matchesAny(String group, List<String> patterns) {
+        return patterns.stream().anyMatch(pattern -> group.equals(pattern) || Pattern.matches(pattern, group));
+    }
+
+    /** Method-level @Test, or the class-level one for public methods of a class annotated with @Test. */
+    private static Test annotation(Method method) {
+        Test test = method.getAnnotation(Test.class);
+        return (test != null) ? test : method.getDeclaringClass().getAnnotation(Test.class);
+    }
+}
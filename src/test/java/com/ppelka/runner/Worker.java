@@ -0,0 +1,101 @@
+package com.ppelka.runner;
+
+import com.ppelka.utils.TestTimingStore;
+import org.testng.TestNG;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import org.testng.xml.internal.Parser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Worker JVM started by {@link DistributedRunner}.
+ *
+ * Runs one TestNG suite with the listeners and parameters of the original suite file, so
+ * suite-scoped services (local AUT server, HAR proxy) and the per-thread browser pool live
+ * for the whole worker. Its tests are slots that pull their units from the coordinator.
+ *
+ * Usage: Worker &lt;socket path&gt; &lt;suite file&gt; &lt;worker id&gt;
+ */
+public final class Worker {
+
+    private Worker() {
+        // Entry point only
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path socket = Path.of(args[0]);
+        XmlSuite original = new Parser(args[1]).parseToList().get(0);
+        String id = args[2];
+
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        channel.connect(UnixDomainSocketAddress.of(socket));
+        BufferedReader in = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+        PrintWriter out = new PrintWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), true);
+
+        out.println(Protocol.HELLO + "\t" + id);
+        String reply = in.readLine();
+        if (reply == null || !reply.startsWith(Protocol.SLOTS)) {
+            throw new IOException("Unexpected coordinator reply: " + reply);
+        }
+        int slots = Integer.parseInt(reply.substring(Protocol.SLOTS.length() + 1).trim());
+
+        int status = 1;
+        try {
+            TestNG testng = new TestNG();
+            testng.setXmlSuites(List.of(slotSuite(original, slots)));
+            testng.addListener(new WorkerListener(in, out, original,
+                    TestTimingStore.load(DistributedRunner.timingFiles())));
+            testng.run();
+            status = testng.getStatus();
+        } finally {
+            channel.close();
+            // Surviving non-daemon threads (e.g. driver services) must not keep the worker alive
+            System.exit(status);
+        }
+    }
+
+    /**
+     * Copies the suite's name, listeners and parameters and replaces its tests with
+     * {@code slots} tests that each contain every test class of the original suite.
+     * Group and method filters are applied when the coordinator enumerates the units; the
+     * parameters of the original {@code <test>} are put on a slot once it knows its unit
+     * (see {@link WorkerListener}).
+     */
+    private static XmlSuite slotSuite(XmlSuite original, int slots) {
+        XmlSuite suite = new XmlSuite();
+        suite.setName(original.getName());
+        suite.setVerbose(original.getVerbose());
+        suite.setListeners(new ArrayList<>(original.getListeners()));
+        suite.setParameters(original.getParameters());
+        // Parallelism comes from running several workers; each worker runs its units one by one
+        suite.setParallel(XmlSuite.ParallelMode.NONE);
+
+        Set<String> classes = new LinkedHashSet<>();
+        for (XmlTest test : original.getTests()) {
+            test.getXmlClasses().forEach(c -> classes.add(c.getName()));
+        }
+
+        for (int i = 1; i <= slots; i++) {
+            XmlTest test = new XmlTest(suite);
+            test.setName("slot-" + i);
+            List<XmlClass> xmlClasses = new ArrayList<>();
+            classes.forEach(name -> xmlClasses.add(new XmlClass(name)));
+            test.setXmlClasses(xmlClasses);
+        }
+        return suite;
+    }
+}
@@ -0,0 +1,188 @@
+package com.ppelka.runner;
+
+import com.ppelka.data.RowStream;
+import com.ppelka.utils.TestTimingStore;
+import org.testng.IDataProviderInterceptor;
+import org.testng.IDataProviderMethod;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Worker side of the coordinator protocol.
+ *
+ * The worker suite consists of empty {@code <test>} slots that contain every test class.
+ * When a slot starts, this interceptor asks the coordinator for the next unit and narrows
+ * the slot down to that method (and, for data-driven methods, to the unit's bucket of rows). The
+ * slot is renamed after the original {@code <test>} and takes over its {@code <test>},
+ * {@code <class>} and {@code <include>} parameters, so the unit runs as it would in a regular run.
+ * Every test result is streamed back as soon as it is known.
+ */
+final class WorkerListener implements IMethodInterceptor, IDataProviderInterceptor, ITestListener, ISuiteListener {
+
+    private final BufferedReader in;
+    private final PrintWriter out;
+    private final TestTimingStore timings;
+    private final Map<String, XmlTest> originalTests;
+
+    private volatile WorkUnit current;
+
+    WorkerListener(BufferedReader in, PrintWriter out, XmlSuite original, TestTimingStore timings) {
+        this.in = in;
+        this.out = out;
+        this.timings = timings;
+        this.originalTests = original.getTests().stream()
+                .collect(Collectors.toMap(XmlTest::getName, test -> test, (first, second) -> first));
+    }
+
+    // ============================================================
+    // Unit selection
+    // ============================================================
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        WorkUnit unit = next();
+        current = unit;
+        if (unit == null) {
+            return List.of();
+        }
+
+        configureSlot(context.getCurrentXmlTest(), unit);
+        return methods.stream()
+                .filter(m -> m.getMethod().getQualifiedName().equals(unit.qualifiedName()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Iterator<Object[]> intercept(Iterator<Object[]> original, IDataProviderMethod dataProviderMethod,
+                                        ITestNGMethod method, ITestContext context) {
+        WorkUnit unit = current;
+        if (unit == null || unit.kind() == WorkUnit.Kind.METHOD) {
+            return original;
+        }
+
+        // Both coordinator and worker read the same history files, so they agree on the known rows
+        Map<String, Long> known = timings.rowsOf(method);
+        if (unit.kind() == WorkUnit.Kind.BUCKET) {
+            return RowStream.filter(original, row -> {
+                String rowKey = TestTimingStore.rowKey(method, row);
+                return known.containsKey(rowKey) && unit.containsRow(rowKey);
+            });
+        }
+
+        // REST: the rows without history, which no bucket covers
+        return RowStream.filter(original, row -> !known.containsKey(TestTimingStore.rowKey(method, row)));
+    }
+
+    /**
+     * Gives the slot the name and parameters of the unit's original {@code <test>}. TestNG looks
+     * parameters up when a method is invoked, so this takes effect for the unit's configuration
+     * and test methods.
+     */
+    private void configureSlot(XmlTest slot, WorkUnit unit) {
+        slot.setName(unit.testName());
+        XmlTest original = originalTests.get(unit.testName());
+        if (original == null) {
+            return;
+        }
+        slot.setParameters(new HashMap<>(original.getLocalParameters()));
+
+        String methodName = unit.qualifiedName().substring(unit.qualifiedName().lastIndexOf('.') + 1);
+        for (XmlClass originalClass : original.getXmlClasses()) {
+            if (!originalClass.getName().equals(unit.className())) {
+                continue;
+            }
+            for (XmlClass slotClass : slot.getXmlClasses()) {
+                if (!slotClass.getName().equals(unit.className())) {
+                    continue;
+                }
+                slotClass.setParameters(new HashMap<>(originalClass.getLocalParameters()));
+                originalClass.getIncludedMethods().stream()
+                        .filter(include -> include.getName().equals(methodName))
+                        .findFirst()
+                        .ifPresent(include -> {
+                            XmlInclude copy = new XmlInclude(methodName);
+                            copy.setParameters(new HashMap<>(include.getLocalParameters()));
+                            copy.setXmlClass(slotClass);
+                            slotClass.setIncludedMethods(new ArrayList<>(List.of(copy)));
+                        });
+            }
+        }
+    }
+
+    /** Reports the previous unit as finished and blocks for the next one. */
+    private synchronized WorkUnit next() {
+        out.println(Protocol.NEXT);
+        String reply = readLine();
+        return reply.startsWith(Protocol.RUN) ? WorkUnit.decode(reply.substring(Protocol.RUN.length() + 1)) : null;
+    }
+
+    // ============================================================
+    // Result streaming
+    // ============================================================
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        send(result, "PASS");
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        send(result, "FAIL");
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        send(result, result.wasRetried() ? "RETRY" : "SKIP");
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        synchronized (this) {
+            out.println(Protocol.BYE);
+        }
+    }
+
+    private void send(ITestResult result, String status) {
+        ITestNGMethod method = result.getMethod();
+        String key = method.isDataDriven()
+                ? TestTimingStore.rowKey(method, result.getParameters())
+                : TestTimingStore.key(method);
+        synchronized (this) {
+            out.println(String.join("\t", Protocol.RESULT, status,
+                    Long.toString(result.getEndMillis() - result.getStartMillis()), key.replace('\t', ' ')));
+        }
+    }
+
+    private String readLine() {
+        try {
+            String line = in.readLine();
+            if (line == null) {
+                throw new IOException("Coordinator closed the connection");
+            }
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -29,9 +29,7 @@ public class CheckoutInformationSteps {
     public CheckoutInformationSteps enterCustomerInfo(String firstName, String lastName, String postalCode) {
         log.info("Entering customer info: {} {} {}", firstName, lastName, postalCode);
 
-        infoPage.enterFirstName(firstName)
-                .enterLastName(lastName)
-                .enterPostalCode(postalCode);
+        infoPage.fillCustomerInfo(firstName, lastName, postalCode);
 
         return this;
     }
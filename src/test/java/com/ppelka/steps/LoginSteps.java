@@ -2,6 +2,8 @@ package com.ppelka.steps;
 
 import com.ppelka.pageobjects.LoginPage;
 import com.ppelka.pageobjects.ProductCatalog;
+import com.ppelka.pageobjects.SessionCache;
+import com.ppelka.testbase.SetupMode;
 import io.qameta.allure.Step;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,9 +18,15 @@ public class LoginSteps {
     private static final Logger log = LoggerFactory.getLogger(LoginSteps.class);
 
     private final LoginPage loginPage;
+    private final SessionCache sessionCache;
 
     public LoginSteps(LoginPage loginPage) {
+        this(loginPage, null);
+    }
+
+    public LoginSteps(LoginPage loginPage, SessionCache sessionCache) {
         this.loginPage = loginPage;
+        this.sessionCache = sessionCache;
     }
 
     // ============================================================
@@ -41,7 +49,13 @@ public class LoginSteps {
     public ProductCatalog loginValid(String username, String password) {
         log.info("Logging in with valid credentials: {}", username);
 
-        ProductCatalog catalog = loginPage.loginValid(username, password);
+        // Tests that explicitly require the UI setup always go through the login form
+        boolean useCache = sessionCache != null && SessionCache.isEnabled()
+                && SetupMode.Mode.declared() != SetupMode.Mode.UI;
+
+        ProductCatalog catalog = useCache
+                ? sessionCache.loginValid(loginPage, username, password)
+                : loginPage.loginValid(username, password);
 
         Assert.assertTrue(
                 catalog.isAt(),
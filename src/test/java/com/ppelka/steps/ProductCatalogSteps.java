@@ -7,6 +7,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
 
+import java.util.List;
+import java.util.Set;
+
 /**
  * Step definitions for product catalog actions.
  * Provides high-level business steps used in test scenarios.
@@ -39,6 +42,22 @@ public class ProductCatalogSteps {
         return this;
     }
 
+    @Step("Add products to cart: {productNames}")
+    public ProductCatalogSteps addProducts(String... productNames) {
+        List<String> products = List.of(productNames);
+        log.info("Adding products to cart: {}", products);
+
+        catalog.addProducts(products);
+
+        Set<String> added = catalog.getAddedProducts();
+        Assert.assertTrue(
+                added.containsAll(products),
+                "Products were not added to cart: expected remove buttons for " + products + "\nActual: " + added
+        );
+
+        return this;
+    }
+
     @Step("Verify cart quantity is: {expected}")
     public ProductCatalogSteps verifyCartQuantity(String expected) {
         String actual = catalog.getCartQuantity();
@@ -0,0 +1,67 @@
+package com.ppelka.steps;
+
+import com.ppelka.pageobjects.CartPage;
+import com.ppelka.pageobjects.LoginPage;
+import com.ppelka.pageobjects.ProductCatalog;
+import com.ppelka.pageobjects.SessionSeeder;
+import com.ppelka.testbase.SetupMode;
+import io.qameta.allure.Step;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+
+import java.util.List;
+
+/**
+ * Step definitions that bring a test to its starting state.
+ * Depending on the test's {@link SetupMode}, the state is built through the UI
+ * or seeded directly into cookies and localStorage.
+ */
+public class SessionSteps {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionSteps.class);
+
+    private final WebDriver driver;
+    private final LoginPage loginPage;
+
+    public SessionSteps(WebDriver driver, LoginPage loginPage) {
+        this.driver = driver;
+        this.loginPage = loginPage;
+    }
+
+    // ============================================================
+    // Starting states
+    // ============================================================
+
+    @Step("Start on product catalog as {username} with cart: {productNames}")
+    public ProductCatalog openCatalogWithCart(String username, String password, String... productNames) {
+        SetupMode.Mode mode = SetupMode.Mode.current();
+        log.info("Opening product catalog as {} with cart {} ({} setup)", username, List.of(productNames), mode);
+
+        ProductCatalog catalog;
+        if (mode == SetupMode.Mode.SEEDED) {
+            catalog = SessionSeeder.asUser(driver, username).withCart(productNames).openCatalog();
+        } else {
+            loginPage.goTo();
+            catalog = loginPage.loginValid(username, password);
+            catalog.addProducts(List.of(productNames));
+        }
+
+        Assert.assertTrue(catalog.isAt(), "Product catalog failed to load for " + username);
+        return catalog;
+    }
+
+    @Step("Start on cart page as {username} with cart: {productNames}")
+    public CartPage openCartWithProducts(String username, String password, String... productNames) {
+        SetupMode.Mode mode = SetupMode.Mode.current();
+        log.info("Opening cart as {} with products {} ({} setup)", username, List.of(productNames), mode);
+
+        CartPage cartPage = (mode == SetupMode.Mode.SEEDED)
+                ? SessionSeeder.asUser(driver, username).withCart(productNames).openCart()
+                : openCatalogWithCart(username, password, productNames).goToCartPage();
+
+        Assert.assertTrue(cartPage.isAt(), "Cart page failed to load for " + username);
+        return cartPage;
+    }
+}
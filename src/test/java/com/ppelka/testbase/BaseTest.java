@@ -1,8 +1,11 @@
 package com.ppelka.testbase;
 
+import com.ppelka.abstractcomponents.AbstractComponent;
+import com.ppelka.core.ConcurrencyGovernor;
 import com.ppelka.core.ConfigReader;
 import com.ppelka.core.DriverManager;
-import com.ppelka.core.WebDriverFactory;
+import com.ppelka.core.LeanNetwork;
+import com.ppelka.listeners.RetryAnalyzer;
 import com.ppelka.pageobjects.*;
 import com.ppelka.steps.*;
 import com.ppelka.utils.AllureAttachments;
@@ -12,33 +15,18 @@ import org.slf4j.LoggerFactory;
 import org.testng.ITestResult;
 import org.testng.annotations.*;
 
-import java.time.Duration;
+import java.util.function.Function;
 
 /**
  * Base test class providing driver setup, teardown, and shared step/page initialization.
+ *
+ * Driver, page objects and steps live in a per-thread {@link TestContext} rather than
+ * in instance fields, so the suite is safe under every TestNG parallel mode.
  */
 public abstract class BaseTest {
 
     private static final Logger log = LoggerFactory.getLogger(BaseTest.class);
 
-    protected WebDriver driver;
-
-    // Page Objects
-    protected LoginPage loginPage;
-    protected ProductCatalog productCatalog;
-    protected CartPage cartPage;
-    protected CheckoutInformationPage infoPage;
-    protected CheckoutOverviewPage overviewPage;
-    protected CheckoutCompletePage completePage;
-
-    // Steps
-    protected LoginSteps loginSteps;
-    protected ProductCatalogSteps productSteps;
-    protected CartSteps cartSteps;
-    protected CheckoutInformationSteps infoSteps;
-    protected CheckoutOverviewSteps overviewSteps;
-    protected CheckoutCompleteSteps completeSteps;
-
     @Parameters("browser")
     @BeforeMethod(alwaysRun = true)
     public void setUp(@Optional String browserFromTestNG) {
@@ -51,38 +39,68 @@ public abstract class BaseTest {
                 ? browserFromTestNG
                 : ConfigReader.get("browser", "chrome"));
 
-        driver = WebDriverFactory.createDriver(browser);
-        DriverManager.setDriver(driver);
-
-        driver.manage().window().maximize();
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(0));
-
-        initPageObjects();
-        initSteps();
+        WebDriver instance = acquireDriver(browser);
+        TestContext.bind(new TestContext(instance));
+        StepCheckpoints.startAttempt();
 
         String url = ConfigReader.get("base.url");
         log.info("Navigating to base URL: {}", url);
-        driver.get(url);
+        driver().get(url);
 
         log.info("=== SETUP COMPLETE ===");
     }
 
-    private void initPageObjects() {
-        loginPage = new LoginPage(driver);
-        productCatalog = new ProductCatalog(driver);
-        cartPage = new CartPage(driver);
-        infoPage = new CheckoutInformationPage(driver);
-        overviewPage = new CheckoutOverviewPage(driver);
-        completePage = new CheckoutCompletePage(driver);
+    /**
+     * Returns the browser session for this thread's test. A test being retried after a transient
+     * failure keeps its browser (see tearDown); otherwise a new session is started.
+     * Browser-free framework checks override this and {@link #releaseDriver(boolean)}.
+     */
+    protected WebDriver acquireDriver(String browser) {
+        WebDriver instance = DriverManager.resetForRetry();
+        if (instance == null) {
+            return DriverManager.startDriver(browser);
+        }
+        log.info("Retrying on the same browser session");
+        return instance;
     }
 
-    private void initSteps() {
-        loginSteps = new LoginSteps(loginPage);
-        productSteps = new ProductCatalogSteps(productCatalog);
-        cartSteps = new CartSteps(cartPage);
-        infoSteps = new CheckoutInformationSteps(infoPage);
-        overviewSteps = new CheckoutOverviewSteps(overviewPage);
-        completeSteps = new CheckoutCompleteSteps(completePage);
+    /**
+     * Hands this thread's session back to the warm pool when reusable, or quits it.
+     */
+    protected void releaseDriver(boolean reusable) {
+        DriverManager.releaseDriver(reusable);
+    }
+
+    // ============================================================
+    // Per-thread test context
+    // ============================================================
+
+    protected WebDriver driver() { return TestContext.current().driver(); }
+
+    // Page Objects
+    protected LoginPage loginPage() { return TestContext.current().loginPage(); }
+    protected ProductCatalog productCatalog() { return TestContext.current().productCatalog(); }
+    protected CartPage cartPage() { return TestContext.current().cartPage(); }
+    protected CheckoutInformationPage infoPage() { return TestContext.current().infoPage(); }
+    protected CheckoutOverviewPage overviewPage() { return TestContext.current().overviewPage(); }
+    protected CheckoutCompletePage completePage() { return TestContext.current().completePage(); }
+
+    // Steps
+    protected LoginSteps loginSteps() { return TestContext.current().loginSteps(); }
+    protected ProductCatalogSteps productSteps() { return TestContext.current().productSteps(); }
+    protected CartSteps cartSteps() { return TestContext.current().cartSteps(); }
+    protected CheckoutInformationSteps infoSteps() { return TestContext.current().infoSteps(); }
+    protected CheckoutOverviewSteps overviewSteps() { return TestContext.current().overviewSteps(); }
+    protected CheckoutCompleteSteps completeSteps() { return TestContext.current().completeSteps(); }
+    protected SessionSteps sessionSteps() { return TestContext.current().sessionSteps(); }
+
+    /**
+     * Enters a shared test prefix: replays it on first use, forks the captured browser state afterwards.
+     * See {@link PrefixExecutor}.
+     */
+    protected <T extends AbstractComponent> T withPrefix(String name, Function<WebDriver, T> landingPage,
+                                                         Runnable replay) {
+        return PrefixExecutor.enter(driver(), name, landingPage, replay);
     }
 
     @AfterMethod(alwaysRun = true)
@@ -90,15 +108,42 @@ public abstract class BaseTest {
 
         log.info("=== START TEST TEARDOWN ===");
 
+        RetryAnalyzer.Decision decision = RetryAnalyzer.decisionOf(result);
+
         try {
-            if (result.getStatus() == ITestResult.FAILURE) {
+            // Retried attempts are reported as skipped, but deserve the same diagnostics
+            if (result.getStatus() == ITestResult.FAILURE || result.wasRetried()) {
                 log.error("Test FAILED: {}", result.getMethod().getMethodName());
                 AllureAttachments.attachScreenshot();
                 AllureAttachments.attachPageSource();
                 AllureAttachments.attachCurrentUrl();
             }
+
+            if (ConfigReader.getBoolean("metrics.enabled", true)) {
+                AllureAttachments.attachInteractionMetrics();
+            }
+
+            if (LeanNetwork.isEnabled()) {
+                AllureAttachments.attachLeanModeReport();
+            }
+
+            if (ConcurrencyGovernor.isEnabled()) {
+                AllureAttachments.attachGovernorWait();
+            }
+
+            if (decision != null) {
+                AllureAttachments.attachRetryDecision(decision);
+            }
         } finally {
-            DriverManager.quitDriver();
+            if (decision != null && decision.reuseDriver()) {
+                // Keep the session bound to this thread; setUp resets and reuses it
+                log.info("Keeping the browser session for the retry");
+            } else {
+                // Failed tests never hand their session back to the warm pool
+                releaseDriver(decision == null && result.getStatus() != ITestResult.FAILURE);
+            }
+            StepCheckpoints.finishAttempt(result, decision != null && decision.retry());
+            TestContext.unbind();
             log.info("=== TEARDOWN COMPLETE ===");
         }
     }
@@ -0,0 +1,142 @@
+package com.ppelka.testbase;
+
+import com.ppelka.abstractcomponents.AbstractComponent;
+import com.ppelka.abstractcomponents.PageIdentity;
+import com.ppelka.core.BrowserState;
+import com.ppelka.core.ConfigReader;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Shares an expensive test prefix (e.g. log in and fill the cart) between tests.
+ *
+ * The first test that enters a named prefix replays it through the UI and the resulting
+ * browser state (URL, cookies, storage) is captured together with what the landing page
+ * renders (cart badge and the names of the items in the cart). Every later test entering
+ * the same prefix forks that state into its own driver, waits for the landing page and
+ * checks that it renders the same cart. If the restore fails, the landing page does not
+ * appear or the cart differs, the snapshot is dropped, the forked state is cleared and
+ * the prefix is replayed in full.
+ *
+ * Snapshots are shared by all workers and keyed by prefix name and browser; two workers
+ * that miss at the same time both replay the prefix once.
+ *
+ * When a retry resumes from a {@link StepCheckpoints step checkpoint} past the end of the
+ * prefix, the replayed steps are skipped and neither the landing page nor a snapshot is taken.
+ *
+ * Configuration keys:
+ *  - prefix.sharing.enabled -> "false"
+ */
+public final class PrefixExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(PrefixExecutor.class);
+
+    /** Cart badge text and the sorted names of the items shown with a remove button. */
+    private static final String RENDERED_CART_SCRIPT =
+            "var badge = document.querySelector('.shopping_cart_badge'), items = [];" +
+            "document.querySelectorAll('.inventory_item, .cart_item').forEach(function (item) {" +
+            "  var name = item.querySelector('.inventory_item_name');" +
+            "  if (name && item.querySelector('button.btn_secondary.btn_small')) items.push(name.textContent.trim());" +
+            "});" +
+            "return {badge: badge ? badge.textContent.trim() : '', items: items.sort()};";
+
+    private record Snapshot(BrowserState state, Object renderedCart) {
+    }
+
+    private static final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    private PrefixExecutor() {
+        // Utility class; prevent instantiation
+    }
+
+    /**
+     * Brings the driver to the state produced by the named prefix and returns its landing page.
+     *
+     * @param driver      the test's driver
+     * @param name        unique name of the prefix; tests with the same name must run the same steps
+     * @param landingPage creates the page object the prefix ends on
+     * @param replay      runs the prefix through the UI
+     */
+    public static <T extends AbstractComponent> T enter(WebDriver driver, String name,
+                                                         Function<WebDriver, T> landingPage, Runnable replay) {
+        if (!ConfigReader.getBoolean("prefix.sharing.enabled", false)) {
+            return replay(driver, landingPage, replay);
+        }
+
+        String key = name + "@" + browserName(driver);
+        Snapshot snapshot = snapshots.get(key);
+
+        if (snapshot != null) {
+            try {
+                snapshot.state().restore(driver);
+                PageIdentity.navigated(driver);
+                driver.get(snapshot.state().url());
+
+                T page = landingPage.apply(driver);
+                page.waitForPageToLoad();
+
+                Object renderedCart = renderedCart(driver);
+                if (renderedCart.equals(snapshot.renderedCart())) {
+                    log.info("Forked prefix '{}' from snapshot taken at {}", name, snapshot.state().capturedAt());
+                    return page;
+                }
+                log.warn("Forked prefix '{}' renders cart {} instead of {}, replaying it",
+                        name, renderedCart, snapshot.renderedCart());
+            } catch (WebDriverException e) {
+                log.warn("Could not fork prefix '{}', replaying it: {}", name, e.getMessage());
+            }
+            snapshots.remove(key, snapshot);
+            discardForkedState(driver);
+        }
+
+        T page = replay(driver, landingPage, replay);
+        if (StepCheckpoints.isSkipping()) {
+            // A resumed retry skipped the prefix and restored a later state; there is nothing to capture
+            return page;
+        }
+        snapshots.put(key, new Snapshot(BrowserState.capture(driver), renderedCart(driver)));
+        log.info("Captured prefix '{}'", name);
+        return page;
+    }
+
+    private static <T extends AbstractComponent> T replay(WebDriver driver,
+                                                          Function<WebDriver, T> landingPage, Runnable replay) {
+        replay.run();
+        T page = landingPage.apply(driver);
+        if (!StepCheckpoints.isSkipping()) {
+            page.waitForPageToLoad();
+        }
+        return page;
+    }
+
+    private static Object renderedCart(WebDriver driver) {
+        return ((JavascriptExecutor) driver).executeScript(RENDERED_CART_SCRIPT);
+    }
+
+    /** Clears whatever part of the snapshot was restored, so the replay starts from a clean session. */
+    private static void discardForkedState(WebDriver driver) {
+        try {
+            driver.manage().deleteAllCookies();
+            ((JavascriptExecutor) driver).executeScript("localStorage.clear(); sessionStorage.clear();");
+        } catch (WebDriverException e) {
+            log.debug("Could not clear forked state: {}", e.getMessage());
+        }
+    }
+
+    private static String browserName(WebDriver driver) {
+        if (driver instanceof HasCapabilities hasCapabilities) {
+            Capabilities capabilities = hasCapabilities.getCapabilities();
+            return capabilities.getBrowserName();
+        }
+        return "unknown";
+    }
+}
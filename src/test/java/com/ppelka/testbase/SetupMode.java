@@ -0,0 +1,63 @@
+package com.ppelka.testbase;
+
+import com.ppelka.core.ConfigReader;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+import java.util.Locale;
+
+/**
+ * Selects how a test reaches its starting state.
+ *
+ * UI clicks through login and add-to-cart like a user; SEEDED writes the session
+ * cookie and cart storage directly (see SessionSeeder) and opens the target page.
+ * Tests without the annotation use the "setup.mode" configuration key (default "ui").
+ * Tests annotated with UI never reuse a cached login session either.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface SetupMode {
+
+    Mode value();
+
+    enum Mode {
+        UI,
+        SEEDED;
+
+        /**
+         * Resolves the mode of the test currently running on this thread.
+         */
+        public static Mode current() {
+            Mode declared = declared();
+            if (declared != null) {
+                return declared;
+            }
+
+            String configured = ConfigReader.get("setup.mode", "ui");
+            try {
+                return valueOf(configured.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Warning: unknown setup.mode '" + configured + "'. Using default: ui");
+                return UI;
+            }
+        }
+
+        /**
+         * Returns the mode annotated on the test currently running on this thread, or null.
+         */
+        public static Mode declared() {
+            ITestResult result = Reporter.getCurrentTestResult();
+            if (result == null) {
+                return null;
+            }
+            Method method = result.getMethod().getConstructorOrMethod().getMethod();
+            SetupMode annotation = (method == null) ? null : method.getAnnotation(SetupMode.class);
+            return (annotation == null) ? null : annotation.value();
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.ppelka.testbase;
+
+import com.ppelka.abstractcomponents.AbstractComponent;
+import com.ppelka.abstractcomponents.PageIdentity;
+import com.ppelka.core.BrowserState;
+import com.ppelka.core.ConfigReader;
+import com.ppelka.utils.TestTimingStore;
+import io.qameta.allure.Allure;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.DeclarePrecedence;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lets a retried test resume from its last good step instead of replaying the whole flow.
+ *
+ * Every top-level {@code @Step} of the {@code steps} package that completes is journaled by its
+ * signature (class, method and arguments), followed by a checkpoint: the captured
+ * {@link BrowserState} and the page the step ended on. When the attempt fails and is retried,
+ * the first step of the retry restores the last checkpoint, navigates to its URL and checks
+ * the page with {@link AbstractComponent#isAt()}. The retry then skips the steps it recognises
+ * from the journal (they are reported as passed, marked as restored) and runs for real from the
+ * step after the checkpoint. If the restore or the page check fails, the browser state is
+ * cleared and the retry runs in full.
+ *
+ * Steps are matched by signature, so code between steps is still executed; a retry whose
+ * steps differ from the journal stops skipping at the first difference.
+ *
+ * Registered as a load-time woven aspect in META-INF/aop-ajc.xml; Allure's step aspect runs
+ * around it, so skipped steps still appear in the report.
+ *
+ * Configuration keys:
+ *  - checkpoint.enabled -> "false"
+ */
+@Aspect
+@DeclarePrecedence("io.qameta.allure.aspects.StepsAspects, com.ppelka.testbase.StepCheckpoints")
+public class StepCheckpoints {
+
+    private static final Logger log = LoggerFactory.getLogger(StepCheckpoints.class);
+
+    private static final boolean enabled = ConfigReader.getBoolean("checkpoint.enabled", false);
+
+    /** Marks a step whose return value cannot be stood in for, so it cannot be skipped. */
+    private static final Object NOT_SKIPPABLE = new Object();
+
+    /** Journal of the attempt running on this thread; null when checkpointing is off. */
+    private static final ThreadLocal<Attempt> current = new ThreadLocal<>();
+
+    /** Journal of the failed attempt the next attempt on this thread may resume from. */
+    private static final ThreadLocal<Journal> pending = new ThreadLocal<>();
+
+    /**
+     * State after one completed step.
+     *
+     * @param index position of the step in the journal
+     * @param state browser state captured after the step
+     * @param page  page object class the step ended on, used to verify the restore
+     */
+    private record Checkpoint(int index, BrowserState state, Class<? extends AbstractComponent> page) {
+    }
+
+    /** What a retried attempt needs to know about the failed one. */
+    private record Journal(String test, List<String> steps, Checkpoint checkpoint, String failedStep) {
+    }
+
+    private static final class Attempt {
+        private final Journal resumeFrom;
+        private final List<String> steps = new ArrayList<>();
+        private Checkpoint checkpoint;
+        private String failedStep;
+        private int depth;
+        private boolean skipping;
+
+        private Attempt(Journal resumeFrom) {
+            this.resumeFrom = resumeFrom;
+        }
+    }
+
+    // ============================================================
+    // Attempt lifecycle (called by BaseTest)
+    // ============================================================
+
+    /** Starts journaling a test attempt on the current thread. */
+    static void startAttempt() {
+        Journal journal = pending.get();
+        pending.remove();
+        if (enabled) {
+            current.set(new Attempt(journal));
+        }
+    }
+
+    /**
+     * Ends the attempt on the current thread and keeps its journal if the test is retried.
+     */
+    static void finishAttempt(ITestResult result, boolean retried) {
+        Attempt attempt = current.get();
+        current.remove();
+        if (attempt == null || !retried || attempt.checkpoint == null) {
+            return;
+        }
+
+        pending.set(new Journal(testKey(result), List.copyOf(attempt.steps), attempt.checkpoint, attempt.failedStep));
+        log.info("Journaled {} step(s); the retry may resume after step {} ({})",
+                attempt.steps.size(), attempt.checkpoint.index() + 1, attempt.steps.get(attempt.checkpoint.index()));
+    }
+
+    /** Returns true while the attempt on the current thread skips steps restored from a checkpoint. */
+    static boolean isSkipping() {
+        Attempt attempt = current.get();
+        return attempt != null && attempt.skipping;
+    }
+
+    // ============================================================
+    // Advice
+    // ============================================================
+
+    @Around("execution(@io.qameta.allure.Step * com.ppelka.steps..*.*(..))")
+    public Object aroundStep(ProceedingJoinPoint step) throws Throwable {
+        Attempt attempt = current.get();
+        if (attempt == null || attempt.depth > 0) {
+            return nested(attempt, step);
+        }
+
+        int index = attempt.steps.size();
+        String signature = signature(step);
+
+        if (index == 0 && attempt.resumeFrom != null) {
+            resume(attempt);
+        }
+        if (attempt.skipping) {
+            Object standIn = skip(attempt, index, signature, step);
+            if (attempt.skipping) {
+                return standIn;
+            }
+        }
+
+        Object result;
+        attempt.depth++;
+        try {
+            result = step.proceed();
+        } catch (Throwable t) {
+            attempt.failedStep = signature;
+            throw t;
+        } finally {
+            attempt.depth--;
+        }
+
+        attempt.steps.add(signature);
+        checkpoint(attempt, index, step.getTarget(), result);
+        return result;
+    }
+
+    private static Object nested(Attempt attempt, ProceedingJoinPoint step) throws Throwable {
+        if (attempt == null) {
+            return step.proceed();
+        }
+        attempt.depth++;
+        try {
+            return step.proceed();
+        } finally {
+            attempt.depth--;
+        }
+    }
+
+    // ============================================================
+    // Checkpoints
+    // ============================================================
+
+    private static void checkpoint(Attempt attempt, int index, Object target, Object result) {
+        Class<? extends AbstractComponent> page = (result instanceof AbstractComponent component)
+                ? component.getClass()
+                : pageOf(target);
+        if (page == null) {
+            return;
+        }
+
+        try {
+            BrowserState state = BrowserState.capture(TestContext.current().driver());
+            // Blank and data: documents have no origin to restore into
+            if (state.origin().startsWith("http")) {
+                attempt.checkpoint = new Checkpoint(index, state, page);
+            }
+        } catch (WebDriverException e) {
+            log.debug("No checkpoint after step {}: {}", index + 1, e.getMessage());
+        }
+    }
+
+    /** Restores the checkpoint of the failed attempt, or resets the browser if it cannot be verified. */
+    private static void resume(Attempt attempt) {
+        Journal journal = attempt.resumeFrom;
+        if (!journal.test().equals(testKey(Reporter.getCurrentTestResult()))) {
+            return;
+        }
+
+        Checkpoint checkpoint = journal.checkpoint();
+        WebDriver driver = TestContext.current().driver();
+        try {
+            checkpoint.state().restore(driver);
+            PageIdentity.navigated(driver);
+            driver.get(checkpoint.state().url());
+
+            AbstractComponent page = checkpoint.page().getConstructor(WebDriver.class).newInstance(driver);
+            page.waitForPageToLoad();
+            if (!page.isAt()) {
+                throw new WebDriverException("Not at " + checkpoint.page().getSimpleName());
+            }
+
+            attempt.checkpoint = checkpoint;
+            attempt.skipping = true;
+            log.info("Restored checkpoint after step {} of {} on {}; failed at: {}", checkpoint.index() + 1,
+                    journal.steps().size(), checkpoint.page().getSimpleName(), journal.failedStep());
+        } catch (WebDriverException | ReflectiveOperationException e) {
+            log.warn("Could not restore checkpoint after step {}, running the retry in full: {}",
+                    checkpoint.index() + 1, e.getMessage());
+            reset(driver);
+        }
+    }
+
+    /**
+     * Skips a step already completed before the checkpoint and returns what the step would have
+     * returned. Ends skipping when the step is past the checkpoint or does not match the journal.
+     */
+    private static Object skip(Attempt attempt, int index, String signature, ProceedingJoinPoint step) {
+        Journal journal = attempt.resumeFrom;
+        if (index > journal.checkpoint().index()) {
+            attempt.skipping = false;
+            log.info("Resuming at step {}: {}", index + 1, signature);
+            return null;
+        }
+
+        Object standIn = signature.equals(journal.steps().get(index)) ? standIn(step) : NOT_SKIPPABLE;
+        if (standIn == NOT_SKIPPABLE) {
+            attempt.skipping = false;
+            log.warn("Step {} ({}) differs from the journal ({}); running the rest of the retry for real",
+                    index + 1, signature, journal.steps().get(index));
+            return null;
+        }
+
+        attempt.steps.add(signature);
+        Allure.getLifecycle().updateStep(s -> s.setName(s.getName() + " [restored from checkpoint]"));
+        log.debug("Skipped step {} restored from checkpoint: {}", index + 1, signature);
+        return standIn;
+    }
+
+    /** The step object for fluent steps, a fresh page object for navigation steps. */
+    private static Object standIn(ProceedingJoinPoint step) {
+        Class<?> type = ((MethodSignature) step.getSignature()).getReturnType();
+        if (type == void.class) {
+            return null;
+        }
+        if (type.isInstance(step.getTarget())) {
+            return step.getTarget();
+        }
+        if (AbstractComponent.class.isAssignableFrom(type)) {
+            try {
+                return type.getConstructor(WebDriver.class).newInstance(TestContext.current().driver());
+            } catch (ReflectiveOperationException e) {
+                log.debug("Cannot create {} for a skipped step: {}", type.getSimpleName(), e.getMessage());
+            }
+        }
+        return NOT_SKIPPABLE;
+    }
+
+    /** Clears whatever a failed restore left behind and starts over from the base URL. */
+    private static void reset(WebDriver driver) {
+        try {
+            ((JavascriptExecutor) driver).executeScript("localStorage.clear(); sessionStorage.clear();");
+            driver.manage().deleteAllCookies();
+            PageIdentity.navigated(driver);
+            driver.get(ConfigReader.get("base.url"));
+        } catch (WebDriverException e) {
+            log.warn("Could not reset the browser after a failed restore: {}", e.getMessage());
+        }
+    }
+
+    // ============================================================
+    // Helpers
+    // ============================================================
+
+    /** The page object a steps class works on, i.e. its first page object field. */
+    @SuppressWarnings("unchecked")
+    private static Class<? extends AbstractComponent> pageOf(Object target) {
+        for (Field field : target.getClass().getDeclaredFields()) {
+            if (AbstractComponent.class.isAssignableFrom(field.getType())) {
+                return (Class<? extends AbstractComponent>) field.getType();
+            }
+        }
+        return null;
+    }
+
+    private static String signature(ProceedingJoinPoint step) {
+        String args = Arrays.deepToString(step.getArgs());
+        return step.getSignature().getDeclaringType().getSimpleName() + "." + step.getSignature().getName()
+                + "(" + args.substring(1, args.length() - 1) + ")";
+    }
+
+    private static String testKey(ITestResult result) {
+        return (result == null) ? "" : TestTimingStore.rowKey(result.getMethod(), result.getParameters());
+    }
+}
@@ -0,0 +1,103 @@
+package com.ppelka.testbase;
+
+import com.ppelka.pageobjects.*;
+import com.ppelka.steps.*;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Everything one running test owns: its driver, page objects and steps.
+ *
+ * A context is bound to the thread that runs the test for the duration of
+ * setUp, the test method and tearDown. TestNG runs all three on the same thread in every
+ * parallel mode (methods, classes, instances, tests and parallel data providers),
+ * so tests never see another test's driver, even when they share a test class instance.
+ */
+public final class TestContext {
+
+    private static final ThreadLocal<TestContext> current = new ThreadLocal<>();
+
+    private final WebDriver driver;
+
+    // Page Objects
+    private final LoginPage loginPage;
+    private final ProductCatalog productCatalog;
+    private final CartPage cartPage;
+    private final CheckoutInformationPage infoPage;
+    private final CheckoutOverviewPage overviewPage;
+    private final CheckoutCompletePage completePage;
+
+    // Steps
+    private final LoginSteps loginSteps;
+    private final ProductCatalogSteps productSteps;
+    private final CartSteps cartSteps;
+    private final CheckoutInformationSteps infoSteps;
+    private final CheckoutOverviewSteps overviewSteps;
+    private final CheckoutCompleteSteps completeSteps;
+    private final SessionSteps sessionSteps;
+
+    TestContext(WebDriver driver) {
+        this.driver = driver;
+
+        loginPage = new LoginPage(driver);
+        productCatalog = new ProductCatalog(driver);
+        cartPage = new CartPage(driver);
+        infoPage = new CheckoutInformationPage(driver);
+        overviewPage = new CheckoutOverviewPage(driver);
+        completePage = new CheckoutCompletePage(driver);
+
+        loginSteps = new LoginSteps(loginPage, new SessionCache(driver));
+        productSteps = new ProductCatalogSteps(productCatalog);
+        cartSteps = new CartSteps(cartPage);
+        infoSteps = new CheckoutInformationSteps(infoPage);
+        overviewSteps = new CheckoutOverviewSteps(overviewPage);
+        completeSteps = new CheckoutCompleteSteps(completePage);
+        sessionSteps = new SessionSteps(driver, loginPage);
+    }
+
+    // ============================================================
+    // Thread binding
+    // ============================================================
+
+    /**
+     * Returns the context of the test running on the current thread.
+     *
+     * @throws IllegalStateException if no test is running on this thread
+     */
+    public static TestContext current() {
+        TestContext context = current.get();
+        if (context == null) {
+            throw new IllegalStateException("No test context bound to thread " + Thread.currentThread().getName()
+                    + "; page objects and steps are only available between setUp and tearDown");
+        }
+        return context;
+    }
+
+    static void bind(TestContext context) {
+        current.set(context);
+    }
+
+    static void unbind() {
+        current.remove();
+    }
+
+    // ============================================================
+    // Accessors
+    // ============================================================
+
+    public WebDriver driver() { return driver; }
+
+    public LoginPage loginPage() { return loginPage; }
+    public ProductCatalog productCatalog() { return productCatalog; }
+    public CartPage cartPage() { return cartPage; }
+    public CheckoutInformationPage infoPage() { return infoPage; }
+    public CheckoutOverviewPage overviewPage() { return overviewPage; }
+    public CheckoutCompletePage completePage() { return completePage; }
+
+    public LoginSteps loginSteps() { return loginSteps; }
+    public ProductCatalogSteps productSteps() { return productSteps; }
+    public CartSteps cartSteps() { return cartSteps; }
+    public CheckoutInformationSteps infoSteps() { return infoSteps; }
+    public CheckoutOverviewSteps overviewSteps() { return overviewSteps; }
+    public CheckoutCompleteSteps completeSteps() { return completeSteps; }
+    public SessionSteps sessionSteps() { return sessionSteps; }
+}
@@ -0,0 +1,142 @@
+package com.ppelka.testbase;
+
+import com.ppelka.core.ConfigReader;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Browser-free check that concurrently running tests never observe each other's
+ * {@link TestContext}: every thread keeps seeing its own driver, pages and steps
+ * while other threads bind and unbind theirs, both for contexts bound directly and
+ * for contexts bound by {@link BaseTest}'s setUp/tearDown around a stubbed session.
+ */
+public class TestContextIsolationTest {
+
+    private static final int ROUNDS = 50;
+
+    /** Every context created by any thread; each must be observed by exactly one invocation. */
+    private final Set<Object> created = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    @Test(invocationCount = 40, threadPoolSize = 8, groups = {"framework"})
+    public void concurrentTestsSeeOnlyTheirOwnContext() throws InterruptedException {
+        verifyIsolation();
+    }
+
+    @DataProvider(name = "rows", parallel = true)
+    public Object[][] rows() {
+        Object[][] rows = new Object[16][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Object[]{i};
+        }
+        return rows;
+    }
+
+    @Test(dataProvider = "rows", groups = {"framework"})
+    public void parallelDataProviderRowsSeeOnlyTheirOwnContext(int row) throws InterruptedException {
+        verifyIsolation();
+    }
+
+    @Test(invocationCount = 40, threadPoolSize = 8, groups = {"framework"})
+    public void baseTestLifecycleBindsAndReleasesItsOwnDriver() throws InterruptedException {
+        StubbedBaseTest test = new StubbedBaseTest();
+
+        test.setUp(null);
+        try {
+            Assert.assertEquals(test.visited, List.of(ConfigReader.get("base.url")), "setUp did not open the base URL");
+            for (int i = 0; i < ROUNDS; i++) {
+                Thread.sleep(1);
+                Assert.assertSame(test.driver(), test.session, "Thread observed another test's driver");
+            }
+        } finally {
+            test.tearDown(Reporter.getCurrentTestResult());
+        }
+
+        Assert.assertSame(test.released, test.session, "tearDown released another test's driver");
+        Assert.assertThrows(IllegalStateException.class, TestContext::current);
+    }
+
+    @Test(groups = {"framework"})
+    public void contextIsUnavailableOutsideATest() {
+        Assert.assertThrows(IllegalStateException.class, TestContext::current);
+    }
+
+    private void verifyIsolation() throws InterruptedException {
+        WebDriver driver = stubDriver();
+        TestContext context = new TestContext(driver);
+        Assert.assertTrue(created.add(context), "Context instance was reused");
+
+        TestContext.bind(context);
+        try {
+            for (int i = 0; i < ROUNDS; i++) {
+                // Give other threads the chance to bind their contexts in between
+                Thread.sleep(1);
+
+                TestContext seen = TestContext.current();
+                Assert.assertSame(seen, context, "Thread observed another test's context");
+                Assert.assertSame(seen.driver(), driver, "Thread observed another test's driver");
+                Assert.assertSame(seen.loginSteps(), context.loginSteps(), "Thread observed another test's steps");
+                Assert.assertSame(seen.cartPage(), context.cartPage(), "Thread observed another test's page objects");
+            }
+        } finally {
+            TestContext.unbind();
+        }
+
+        Assert.assertThrows(IllegalStateException.class, TestContext::current);
+    }
+
+    /** A driver that is never called; page objects and steps only keep a reference to it. */
+    private static WebDriver stubDriver() {
+        return stubDriver(url -> {
+            throw new UnsupportedOperationException("get");
+        });
+    }
+
+    /** A driver that only records the URLs it is asked to open. */
+    private static WebDriver stubDriver(Consumer<String> get) {
+        return (WebDriver) Proxy.newProxyInstance(
+                TestContextIsolationTest.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StubDriver@" + Integer.toHexString(System.identityHashCode(proxy));
+                    case "get" -> {
+                        get.accept((String) args[0]);
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /** BaseTest whose browser session is a stub, so its real setUp/tearDown run without a browser. */
+    private static final class StubbedBaseTest extends BaseTest {
+
+        private final List<String> visited = new CopyOnWriteArrayList<>();
+        private final WebDriver session = stubDriver(visited::add);
+        private volatile WebDriver released;
+
+        @Override
+        protected WebDriver acquireDriver(String browser) {
+            Assert.assertThrows("Previous test's context was still bound", IllegalStateException.class,
+                    TestContext::current);
+            return session;
+        }
+
+        @Override
+        protected void releaseDriver(boolean reusable) {
+            released = driver();
+        }
+    }
+}
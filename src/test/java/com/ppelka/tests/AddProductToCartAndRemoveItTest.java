@@ -20,14 +20,14 @@ public class AddProductToCartAndRemoveItTest extends BaseTest {
     @Severity(SeverityLevel.CRITICAL)
     public void addAndRemoveProductTest() {
 
-        loginSteps.openLoginPage()
+        loginSteps().openLoginPage()
                 .loginValid("standard_user", "secret_sauce");
 
-        productSteps.addProduct("Sauce Labs Backpack")
+        productSteps().addProduct("Sauce Labs Backpack")
                 .verifyCartQuantity("1")
                 .goToCart();
 
-        cartSteps.verifyProductVisible("Sauce Labs Backpack")
+        cartSteps().verifyProductVisible("Sauce Labs Backpack")
                 .removeProduct("Sauce Labs Backpack")
                 .verifyCartIsEmpty();
     }
@@ -1,6 +1,7 @@
 package com.ppelka.tests;
 
 import com.ppelka.testbase.BaseTest;
+import com.ppelka.testbase.SetupMode;
 import io.qameta.allure.*;
 import org.testng.annotations.Test;
 
@@ -26,25 +27,50 @@ public class CheckoutFlowTest extends BaseTest {
     @Severity(SeverityLevel.CRITICAL)
     public void checkoutFlowTest() {
 
-        loginSteps.openLoginPage()
+        loginSteps().openLoginPage()
                 .loginValid("standard_user", "secret_sauce");
 
-        productSteps.addProduct("Sauce Labs Backpack")
-                .addProduct("Sauce Labs Bike Light")
+        productSteps().addProducts("Sauce Labs Backpack", "Sauce Labs Bike Light")
                 .verifyCartQuantity("2")
                 .goToCart();
 
-        cartSteps.verifyProductVisible("Sauce Labs Backpack")
+        cartSteps().verifyProductVisible("Sauce Labs Backpack")
                 .verifyProductVisible("Sauce Labs Bike Light")
                 .proceedToCheckout();
 
-        infoSteps.enterCustomerInfo("Patryk", "Tester", "82-300")
+        infoSteps().enterCustomerInfo("Patryk", "Tester", "82-300")
                 .continueToOverview();
 
-        overviewSteps.verifyProductVisible("Sauce Labs Backpack")
+        overviewSteps().verifyProductVisible("Sauce Labs Backpack")
                 .verifyProductVisible("Sauce Labs Bike Light")
                 .finishCheckout();
 
-        completeSteps.verifyOrderSuccess();
+        completeSteps().verifyOrderSuccess();
     }
-}
\ No newline at end of file
+
+    @Test(
+            description = "Checkout flow starting from a seeded session and cart",
+            groups = {"regression"}
+    )
+    @Story("User completes a purchase from a pre-filled cart")
+    @Severity(SeverityLevel.NORMAL)
+    @SetupMode(SetupMode.Mode.SEEDED)
+    public void checkoutFromSeededCartTest() {
+
+        sessionSteps().openCartWithProducts("standard_user", "secret_sauce",
+                "Sauce Labs Backpack", "Sauce Labs Bike Light");
+
+        cartSteps().verifyProductVisible("Sauce Labs Backpack")
+                .verifyProductVisible("Sauce Labs Bike Light")
+                .proceedToCheckout();
+
+        infoSteps().enterCustomerInfo("Patryk", "Tester", "82-300")
+                .continueToOverview();
+
+        overviewSteps().verifyProductVisible("Sauce Labs Backpack")
+                .verifyProductVisible("Sauce Labs Bike Light")
+                .finishCheckout();
+
+        completeSteps().verifyOrderSuccess();
+    }
+}
@@ -0,0 +1,55 @@
+package com.ppelka.tests;
+
+import com.ppelka.core.ConfigReader;
+import com.ppelka.data.RowStream;
+import com.ppelka.pageobjects.CartPage;
+import com.ppelka.testbase.BaseTest;
+import com.ppelka.testbase.SetupMode;
+import io.qameta.allure.*;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+
+/**
+ * Data-driven checkout with customer information streamed from a dataset:
+ *  - Rows are read lazily from data.customers.file (CSV or JSONL), however large it is
+ *  - Each row starts from a seeded cart and completes the purchase
+ *  - All rows share the same starting cart, so with prefix.sharing.enabled=true only the
+ *    first row builds it and the others fork its browser state
+ */
+@Epic("Checkout")
+@Feature("Customer Information")
+public class CustomerCheckoutTest extends BaseTest {
+
+    @DataProvider(name = "customers")
+    public Iterator<Object[]> customers() {
+        return RowStream.open(ConfigReader.get("data.customers.file", "data/customers.csv"),
+                "firstName", "lastName", "postalCode");
+    }
+
+    @Test(
+            dataProvider = "customers",
+            description = "Checkout with customer information from the customers dataset",
+            groups = {"regression"}
+    )
+    @Story("Customers from the dataset complete a purchase")
+    @Severity(SeverityLevel.NORMAL)
+    @SetupMode(SetupMode.Mode.SEEDED)
+    public void customerCheckoutTest(String firstName, String lastName, String postalCode) {
+
+        withPrefix("standard_user with Backpack in cart", CartPage::new, () ->
+                sessionSteps().openCartWithProducts("standard_user", "secret_sauce", "Sauce Labs Backpack"));
+
+        cartSteps().verifyProductVisible("Sauce Labs Backpack")
+                .proceedToCheckout();
+
+        infoSteps().enterCustomerInfo(firstName, lastName, postalCode)
+                .continueToOverview();
+
+        overviewSteps().verifyProductVisible("Sauce Labs Backpack")
+                .finishCheckout();
+
+        completeSteps().verifyOrderSuccess();
+    }
+}
@@ -1,6 +1,7 @@
 package com.ppelka.tests;
 
 import com.ppelka.testbase.BaseTest;
+import com.ppelka.testbase.SetupMode;
 import io.qameta.allure.*;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -32,14 +33,15 @@ public class LoginVerificationTest extends BaseTest {
     )
     @Story("User attempts to log in with various credential types")
     @Severity(SeverityLevel.BLOCKER)
+    @SetupMode(SetupMode.Mode.UI)
     public void loginTest(String username, String password, boolean shouldSucceed, String description) {
 
-        loginSteps.openLoginPage();
+        loginSteps().openLoginPage();
 
         if (shouldSucceed) {
-            loginSteps.loginValid(username, password);
+            loginSteps().loginValid(username, password);
         } else {
-            loginSteps.loginInvalid(username, password)
+            loginSteps().loginInvalid(username, password)
                     .verifyLoginError("Epic sadface");
         }
     }
@@ -1,6 +1,10 @@
 package com.ppelka.utils;
 
+import com.ppelka.abstractcomponents.InteractionMetrics;
+import com.ppelka.core.ConcurrencyGovernor;
 import com.ppelka.core.DriverManager;
+import com.ppelka.core.LeanNetwork;
+import com.ppelka.listeners.RetryAnalyzer;
 import io.qameta.allure.Attachment;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
@@ -48,4 +52,36 @@ public class AllureAttachments {
             return "Page source unavailable: " + e.getMessage();
         }
     }
+
+    /**
+     * Attaches the requests and bytes skipped by lean mode during the current test.
+     */
+    @Attachment(value = "Lean mode: skipped resources", type = "text/plain")
+    public static String attachLeanModeReport() {
+        return LeanNetwork.drainReport(DriverManager.getDriver());
+    }
+
+    /**
+     * Attaches the per-locator latency histograms recorded during the current test.
+     */
+    @Attachment(value = "Interaction metrics", type = "text/plain")
+    public static String attachInteractionMetrics() {
+        return InteractionMetrics.drainTestReport();
+    }
+
+    /**
+     * Attaches how long the current test queued for a browser slot behind the concurrency governor.
+     */
+    @Attachment(value = "Concurrency governor", type = "text/plain")
+    public static String attachGovernorWait() {
+        return ConcurrencyGovernor.drainTestReport();
+    }
+
+    /**
+     * Attaches why a failed attempt was or was not retried, and what it cost.
+     */
+    @Attachment(value = "Retry decision", type = "text/plain")
+    public static String attachRetryDecision(RetryAnalyzer.Decision decision) {
+        return decision.describe();
+    }
 }
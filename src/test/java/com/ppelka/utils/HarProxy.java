@@ -0,0 +1,410 @@
+package com.ppelka.utils;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * Local HTTP proxy that records the application's traffic and replays it without the network.
+ *
+ * The browser reaches the application over plain HTTP through this proxy (see the
+ * "proxy.address" key in WebDriverFactory); the proxy talks to the real upstream over HTTPS.
+ * Origin-form requests (reverse proxy use) are mapped to the configured upstream as well.
+ *
+ *  - record: every response is fetched upstream, its body stored once under its SHA-256
+ *    in blobs/, and an index.har (HAR 1.2, bodies referenced by the "_blob" field) is written on stop.
+ *  - replay: index.har is loaded, every blob is memory-mapped, and responses are served
+ *    byte for byte from the mappings with no upstream calls. Unknown requests get a 404.
+ *
+ * Recordings keep the upstream's headers as they were. When a response is served, redirects
+ * to the upstream are pointed back at the plain-HTTP origin the browser uses, and cookies lose
+ * their Secure flag so the browser keeps them over HTTP.
+ *
+ * HTTPS tunnels (CONNECT) are refused: recording them would require intercepting TLS.
+ */
+public final class HarProxy {
+
+    private static final Logger log = LoggerFactory.getLogger(HarProxy.class);
+
+    public enum Mode { RECORD, REPLAY }
+
+    /** Hop-by-hop and transport headers that must not be stored or forwarded. */
+    private static final Set<String> SKIPPED_HEADERS = Set.of(
+            "connection", "keep-alive", "proxy-connection", "transfer-encoding", "content-length",
+            "host", "upgrade", "te", "trailer", "expect", "strict-transport-security", "alt-svc");
+
+    private static final Pattern SECURE_ATTRIBUTE = Pattern.compile(";\\s*Secure(?=\\s*(;|$))", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SAME_SITE_NONE = Pattern.compile("SameSite\\s*=\\s*None", Pattern.CASE_INSENSITIVE);
+
+    private final Mode mode;
+    private final Path dir;
+    private final URI upstream;
+
+    private final Json json = new Json();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, MappedByteBuffer> blobs = new ConcurrentHashMap<>();
+
+    private HttpClient client;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param mode     record or replay
+     * @param dir      store directory (index.har plus blobs/)
+     * @param upstream origin that origin-form requests and recorded hosts are fetched from, e.g. https://www.saucedemo.com/
+     */
+    public HarProxy(Mode mode, Path dir, URI upstream) {
+        this.mode = mode;
+        this.dir = dir.toAbsolutePath().normalize();
+        this.upstream = upstream;
+    }
+
+    // ============================================================
+    // Lifecycle
+    // ============================================================
+
+    public synchronized void start() throws IOException {
+        if (mode == Mode.REPLAY) {
+            load();
+        } else {
+            Files.createDirectories(dir.resolve("blobs"));
+            client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+        }
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "har-proxy");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+
+        log.info("HAR proxy in {} mode at {} (store {}, upstream {})", mode, address(), dir, upstream);
+    }
+
+    public synchronized void stop() throws IOException {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+
+        if (mode == Mode.RECORD) {
+            save();
+        }
+    }
+
+    /**
+     * Proxy address as host:port, for the browser's proxy settings.
+     */
+    public String address() {
+        InetSocketAddress address = server.getAddress();
+        return address.getHostString() + ":" + address.getPort();
+    }
+
+    // ============================================================
+    // Request handling
+    // ============================================================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if ("CONNECT".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(501, -1);
+                return;
+            }
+
+            URI target = target(exchange.getRequestURI());
+            byte[] requestBody = exchange.getRequestBody().readAllBytes();
+            String key = key(exchange.getRequestMethod(), target, requestBody);
+
+            Entry entry = (mode == Mode.REPLAY) ? entries.get(key) : fetch(exchange, target, requestBody, key);
+            if (entry == null) {
+                log.warn("HAR replay miss: {}", key);
+                exchange.getResponseHeaders().set("X-Har-Replay", "miss");
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            respond(exchange, entry);
+        } catch (IOException | InterruptedException e) {
+            log.warn("HAR proxy failed for {}: {}", exchange.getRequestURI(), e.getMessage());
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (exchange.getResponseCode() == -1) {
+                exchange.sendResponseHeaders(502, -1);
+            }
+        }
+    }
+
+    /**
+     * Maps the browser's URL to the upstream one: plain HTTP is upgraded to the upstream scheme.
+     */
+    private URI target(URI requested) {
+        boolean absolute = requested.getHost() != null;
+        String host = absolute ? requested.getHost() : upstream.getHost();
+        int port = !absolute ? upstream.getPort()
+                : upstream.getScheme().equals(requested.getScheme()) ? requested.getPort() : -1;
+        return URI.create(upstream.getScheme() + "://" + host + (port > 0 ? ":" + port : "")
+                + requested.getRawPath() + (requested.getRawQuery() != null ? "?" + requested.getRawQuery() : ""));
+    }
+
+    private Entry fetch(HttpExchange exchange, URI target, byte[] requestBody, String key)
+            throws IOException, InterruptedException {
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(target)
+                .method(exchange.getRequestMethod(), requestBody.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(requestBody));
+
+        for (Map.Entry<String, List<String>> header : exchange.getRequestHeaders().entrySet()) {
+            if (!SKIPPED_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                header.getValue().forEach(value -> request.header(header.getKey(), value));
+            }
+        }
+
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        response.headers().map().forEach((name, values) -> {
+            if (!name.startsWith(":") && !SKIPPED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.put(name, values);
+            }
+        });
+
+        String sha = store(response.body());
+        Entry entry = new Entry(exchange.getRequestMethod(), target.toString(), response.statusCode(), headers,
+                sha, response.body().length, Instant.now().toString());
+        entries.put(key, entry);
+        return entry;
+    }
+
+    private void respond(HttpExchange exchange, Entry entry) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        String origin = browserOrigin(exchange);
+        entry.headers().forEach((name, values) -> values.forEach(value -> headers.add(name, forBrowser(name, value, origin))));
+
+        ByteBuffer body = blob(entry.blob());
+        boolean noBody = "HEAD".equals(exchange.getRequestMethod()) || entry.status() == 204 || entry.status() == 304;
+        exchange.sendResponseHeaders(entry.status(), noBody ? -1 : (body.remaining() == 0 ? -1 : body.remaining()));
+
+        if (!noBody && body.hasRemaining()) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                WritableByteChannel channel = Channels.newChannel(out);
+                while (body.hasRemaining()) {
+                    channel.write(body);
+                }
+            }
+        }
+    }
+
+    /**
+     * Origin the browser used for this request: the absolute-form target when it came through
+     * the proxy settings, otherwise the Host header (reverse proxy use).
+     */
+    private static String browserOrigin(HttpExchange exchange) {
+        URI requested = exchange.getRequestURI();
+        if (requested.getHost() != null) {
+            return "http://" + requested.getRawAuthority();
+        }
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        return (host == null) ? null : "http://" + host;
+    }
+
+    /**
+     * Adapts a stored upstream header to the plain-HTTP origin the browser talks to.
+     */
+    private String forBrowser(String name, String value, String origin) {
+        if ("location".equalsIgnoreCase(name) && origin != null) {
+            String upstreamOrigin = upstream.getScheme() + "://" + upstream.getRawAuthority();
+            if (value.regionMatches(true, 0, upstreamOrigin, 0, upstreamOrigin.length())) {
+                return origin + value.substring(upstreamOrigin.length());
+            }
+        } else if ("set-cookie".equalsIgnoreCase(name)) {
+            // Browsers drop Secure cookies set over HTTP, and SameSite=None requires Secure
+            String cookie = SECURE_ATTRIBUTE.matcher(value).replaceAll("");
+            return SAME_SITE_NONE.matcher(cookie).replaceAll("SameSite=Lax");
+        }
+        return value;
+    }
+
+    // ============================================================
+    // Store
+    // ============================================================
+
+    private String store(byte[] body) throws IOException {
+        String sha = sha256(body);
+        Path file = dir.resolve("blobs").resolve(sha);
+        if (!Files.exists(file)) {
+            Path tmp = Files.createTempFile(file.getParent(), sha, ".tmp");
+            Files.write(tmp, body);
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return sha;
+    }
+
+    /** Returns a fresh read view of a blob; in record mode blobs are mapped lazily. */
+    private ByteBuffer blob(String sha) {
+        return blobs.computeIfAbsent(sha, this::map).duplicate();
+    }
+
+    private MappedByteBuffer map(String sha) {
+        try (FileChannel channel = FileChannel.open(dir.resolve("blobs").resolve(sha), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new IllegalStateException("Missing HAR blob " + sha + " in " + dir, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void load() throws IOException {
+        Path index = dir.resolve("index.har");
+        if (!Files.isRegularFile(index)) {
+            throw new IOException("No HAR recording found at " + index + "; run once with har.mode=record");
+        }
+
+        Map<String, Object> har = json.toType(Files.readString(index, StandardCharsets.UTF_8), Json.MAP_TYPE);
+        List<Map<String, Object>> recorded = (List<Map<String, Object>>) ((Map<String, Object>) har.get("log")).get("entries");
+
+        for (Map<String, Object> item : recorded) {
+            Entry entry = Entry.fromHar(item);
+            entries.put(key(entry.method(), URI.create(entry.url()), (String) item.get("_requestBodySha")), entry);
+            blob(entry.blob());
+        }
+        log.info("Loaded {} recorded responses ({} blobs mapped)", entries.size(), blobs.size());
+    }
+
+    private synchronized void save() throws IOException {
+        List<Map<String, Object>> harEntries = new ArrayList<>();
+        entries.forEach((key, entry) -> {
+            Map<String, Object> item = entry.toHar();
+            int separator = key.lastIndexOf(' ');
+            item.put("_requestBodySha", key.substring(separator + 1));
+            harEntries.add(item);
+        });
+
+        Map<String, Object> har = Map.of("log", Map.of(
+                "version", "1.2",
+                "creator", Map.of("name", HarProxy.class.getSimpleName(), "version", "1.0"),
+                "entries", harEntries));
+
+        Path index = dir.resolve("index.har");
+        Path tmp = Files.createTempFile(dir, "index", ".tmp");
+        Files.writeString(tmp, json.toJson(har), StandardCharsets.UTF_8);
+        Files.move(tmp, index, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        log.info("Recorded {} responses to {}", harEntries.size(), index);
+    }
+
+    // ============================================================
+    // Helpers
+    // ============================================================
+
+    /** Requests match on method, full URL and the SHA-256 of their body. */
+    private static String key(String method, URI target, byte[] body) {
+        return key(method, target, body.length == 0 ? "-" : sha256(body));
+    }
+
+    private static String key(String method, URI target, String bodySha) {
+        return method + " " + target + " " + (bodySha == null ? "-" : bodySha);
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * One recorded exchange.
+     */
+    private record Entry(String method, String url, int status, Map<String, List<String>> headers,
+                         String blob, long size, String startedDateTime) {
+
+        private Map<String, Object> toHar() {
+            List<Map<String, String>> harHeaders = new ArrayList<>();
+            headers.forEach((name, values) -> values.forEach(value -> harHeaders.add(Map.of("name", name, "value", value))));
+
+            String mimeType = headers.entrySet().stream()
+                    .filter(header -> "content-type".equalsIgnoreCase(header.getKey()))
+                    .map(header -> header.getValue().get(0))
+                    .findFirst().orElse("");
+
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("startedDateTime", startedDateTime);
+            item.put("time", 0);
+            item.put("request", Map.of("method", method, "url", url, "httpVersion", "HTTP/1.1",
+                    "headers", List.of(), "queryString", List.of(), "cookies", List.of(),
+                    "headersSize", -1, "bodySize", -1));
+            item.put("response", Map.of("status", status, "statusText", "", "httpVersion", "HTTP/1.1",
+                    "headers", harHeaders, "cookies", List.of(),
+                    "content", Map.of("size", size, "mimeType", mimeType, "_blob", blob),
+                    "redirectURL", "", "headersSize", -1, "bodySize", size));
+            item.put("cache", Map.of());
+            item.put("timings", Map.of("send", 0, "wait", 0, "receive", 0));
+            return item;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Entry fromHar(Map<String, Object> item) {
+            Map<String, Object> request = (Map<String, Object>) item.get("request");
+            Map<String, Object> response = (Map<String, Object>) item.get("response");
+            Map<String, Object> content = (Map<String, Object>) response.get("content");
+
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (Map<String, Object> header : (List<Map<String, Object>>) response.get("headers")) {
+                headers.computeIfAbsent((String) header.get("name"), name -> new ArrayList<>())
+                        .add((String) header.get("value"));
+            }
+
+            return new Entry((String) request.get("method"), (String) request.get("url"),
+                    ((Number) response.get("status")).intValue(), headers, (String) content.get("_blob"),
+                    ((Number) content.get("size")).longValue(), (String) item.get("startedDateTime"));
+        }
+    }
+}
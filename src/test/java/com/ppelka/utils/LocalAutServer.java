@@ -0,0 +1,217 @@
+package com.ppelka.utils;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-process stand-in for the application under test.
+ *
+ * Serves a local SauceDemo build over loopback on a port chosen at runtime:
+ *  - HTTP/1.1 keep-alive (built into the JDK server)
+ *  - gzip for text assets, compressed once and kept in memory
+ *  - single-page-app fallback: unknown paths (e.g. /inventory.html) serve index.html
+ *  - optional fixed latency plus random jitter per response, to benchmark the framework
+ *    itself with a controlled network
+ */
+public final class LocalAutServer {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalAutServer.class);
+
+    private static final Map<String, String> CONTENT_TYPES = Map.ofEntries(
+            Map.entry("html", "text/html; charset=utf-8"),
+            Map.entry("js", "application/javascript; charset=utf-8"),
+            Map.entry("css", "text/css; charset=utf-8"),
+            Map.entry("json", "application/json; charset=utf-8"),
+            Map.entry("map", "application/json; charset=utf-8"),
+            Map.entry("svg", "image/svg+xml"),
+            Map.entry("png", "image/png"),
+            Map.entry("jpg", "image/jpeg"),
+            Map.entry("ico", "image/x-icon"),
+            Map.entry("woff", "font/woff"),
+            Map.entry("woff2", "font/woff2"),
+            Map.entry("ttf", "font/ttf"),
+            Map.entry("txt", "text/plain; charset=utf-8")
+    );
+
+    private final Path root;
+    private final Duration latency;
+    private final Duration jitter;
+
+    private final Map<Path, Asset> assets = new ConcurrentHashMap<>();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param root    directory containing the built application (index.html at its top level)
+     * @param latency fixed delay added to every response
+     * @param jitter  maximum random delay added on top of the latency
+     */
+    public LocalAutServer(Path root, Duration latency, Duration jitter) {
+        this.root = root.toAbsolutePath().normalize();
+        this.latency = latency;
+        this.jitter = jitter;
+    }
+
+    // ============================================================
+    // Lifecycle
+    // ============================================================
+
+    public synchronized void start() throws IOException {
+        if (!Files.isRegularFile(root.resolve("index.html"))) {
+            throw new IOException("No index.html found in local AUT root: " + root
+                    + "; run scripts/fetch-saucedemo.sh to download the pinned SauceDemo build");
+        }
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "local-aut-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+
+        log.info("Local AUT server serving {} at {} (latency {} ms, jitter {} ms)",
+                root, url(), latency.toMillis(), jitter.toMillis());
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    /**
+     * Base URL of the running server, ending with a slash.
+     */
+    public String url() {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort() + "/";
+    }
+
+    // ============================================================
+    // Request handling
+    // ============================================================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            delay();
+
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            Asset asset = resolve(exchange.getRequestURI().getPath());
+            boolean gzip = asset.gzipped != null && accepts(exchange.getRequestHeaders(), "gzip");
+            byte[] body = gzip ? asset.gzipped : asset.bytes;
+
+            Headers headers = exchange.getResponseHeaders();
+            headers.set("Content-Type", asset.contentType);
+            headers.set("Cache-Control", asset.cacheControl);
+            headers.set("Vary", "Accept-Encoding");
+            if (gzip) {
+                headers.set("Content-Encoding", "gzip");
+            }
+
+            if ("HEAD".equals(method)) {
+                headers.set("Content-Length", String.valueOf(body.length));
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (UncheckedIOException e) {
+            log.warn("Local AUT server failed to serve {}: {}", exchange.getRequestURI(), e.getMessage());
+        }
+    }
+
+    private Asset resolve(String requestPath) {
+        Path file = root.resolve(requestPath.replaceFirst("^/+", "")).normalize();
+        if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+            // Client-side routes are rendered by the application shell
+            file = root.resolve("index.html");
+        }
+        return assets.computeIfAbsent(file, this::load);
+    }
+
+    private Asset load(Path file) {
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            String name = file.getFileName().toString();
+            String extension = name.contains(".") ? name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT) : "";
+            String contentType = CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+
+            boolean compressible = contentType.startsWith("text/") || contentType.contains("javascript")
+                    || contentType.contains("json") || contentType.contains("svg");
+            byte[] gzipped = compressible ? gzip(bytes) : null;
+
+            // Build tools fingerprint everything under /static/, so it never changes for a given URL
+            String cacheControl = root.relativize(file).startsWith("static")
+                    ? "public, max-age=31536000, immutable"
+                    : "no-cache";
+
+            return new Asset(bytes, gzipped, contentType, cacheControl);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void delay() {
+        long millis = latency.toMillis();
+        if (!jitter.isZero()) {
+            millis += ThreadLocalRandom.current().nextLong(jitter.toMillis() + 1);
+        }
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static boolean accepts(Headers headers, String encoding) {
+        String accepted = headers.getFirst("Accept-Encoding");
+        return accepted != null && accepted.toLowerCase(Locale.ROOT).contains(encoding);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 3 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(bytes);
+        }
+        return buffer.toByteArray();
+    }
+
+    private record Asset(byte[] bytes, byte[] gzipped, String contentType, String cacheControl) {
+    }
+}
@@ -0,0 +1,153 @@
+package com.ppelka.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.ITestNGMethod;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Historical durations of test methods and data-provider rows, used to balance shards.
+ *
+ * A method is keyed by its qualified name, a data-provider row by the qualified name
+ * followed by its arguments, e.g. {@code com.ppelka.tests.LoginVerificationTest.loginTest(standard_user, ...)}.
+ * All invocations of one key in a run are summed (invocationCount, retries).
+ *
+ * History is read from one or more properties files, later files overriding earlier ones.
+ * A run writes only the keys it executed, each smoothed with its history, so the outputs
+ * of all shards are disjoint and can simply be concatenated onto the history file.
+ */
+public final class TestTimingStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TestTimingStore.class);
+
+    private final NavigableMap<String, Long> history;
+
+    private final Map<String, LongAdder> measured = new ConcurrentHashMap<>();
+
+    private TestTimingStore(NavigableMap<String, Long> history) {
+        this.history = history;
+    }
+
+    /**
+     * Loads the history from the given files; missing or unreadable files are skipped.
+     */
+    public static TestTimingStore load(List<Path> files) {
+        NavigableMap<String, Long> history = new TreeMap<>();
+        for (Path file : files) {
+            if (!Files.isRegularFile(file)) {
+                continue;
+            }
+
+            Properties props = new Properties();
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                props.load(reader);
+            } catch (IOException e) {
+                log.warn("Could not read test timings from {}: {}", file, e.getMessage());
+                continue;
+            }
+
+            for (String key : props.stringPropertyNames()) {
+                try {
+                    history.put(key, Long.parseLong(props.getProperty(key).trim()));
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring malformed timing '{}' in {}", key, file);
+                }
+            }
+        }
+        return new TestTimingStore(history);
+    }
+
+    // ============================================================
+    // Keys
+    // ============================================================
+
+    public static String key(ITestNGMethod method) {
+        return method.getQualifiedName();
+    }
+
+    public static String rowKey(ITestNGMethod method, Object[] parameters) {
+        return key(method) + Arrays.stream(parameters)
+                .map(p -> p instanceof Object[] array ? Arrays.deepToString(array) : String.valueOf(p))
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    // ============================================================
+    // History
+    // ============================================================
+
+    /** Returns the historical duration in milliseconds, or null if the key never ran. */
+    public Long get(String key) {
+        return history.get(key);
+    }
+
+    /** Returns every historical data-provider row of the method, keyed as by {@link #rowKey}. */
+    public Map<String, Long> rowsOf(ITestNGMethod method) {
+        return rowsOf(key(method));
+    }
+
+    /** Returns every historical data-provider row of the method with the given qualified name. */
+    public Map<String, Long> rowsOf(String qualifiedName) {
+        String prefix = qualifiedName + "(";
+        return Collections.unmodifiableMap(history.subMap(prefix, prefix + Character.MAX_VALUE));
+    }
+
+    /** Median of all known durations, used as the estimate for tests without history. */
+    public long median(long fallback) {
+        if (history.isEmpty()) {
+            return fallback;
+        }
+        long[] values = history.values().stream().mapToLong(Long::longValue).sorted().toArray();
+        return values[values.length / 2];
+    }
+
+    // ============================================================
+    // Recording
+    // ============================================================
+
+    public void record(String key, long millis) {
+        measured.computeIfAbsent(key, k -> new LongAdder()).add(Math.max(0, millis));
+    }
+
+    /**
+     * Writes this run's durations, averaged with their history, to the given file.
+     */
+    public void save(Path file) throws IOException {
+        if (measured.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> out = new HashMap<>();
+        measured.forEach((key, total) -> {
+            Long previous = history.get(key);
+            long current = total.sum();
+            out.put(key, previous == null ? current : (previous + current) / 2);
+        });
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            Properties props = new Properties();
+            out.forEach((key, millis) -> props.setProperty(key, Long.toString(millis)));
+            props.store(writer, "Test durations in milliseconds");
+        }
+        log.info("Recorded durations of {} test(s) to {}", out.size(), file);
+    }
+}